@@ -819,6 +819,27 @@ public class BasePage {
          * End of function
          */
 
+        /*
+         * The following function waits for an asynchronous backend write: it polls
+         * the query with backoff until it returns at least one row for the column.
+         * The query is a name from Queries.properties or plain SQL; XX is replaced by the value
+         */
+        public List<String> waitForQueryList(String query, String value, String column, Duration timeout) {
+
+            String content = MYSQLConnectionManager.resolveQuery(query).replace("XX", value);
+
+            MYSQLConnectionManager.WaitResult result = MYSQLConnectionManager.getInstance()
+                    .waitForQuery(content, rows -> !rows.isEmpty(), timeout);
+            List<String> r = new ArrayList<>();
+            for (Map<String, String> row : result.getRows()) {
+                r.add(row.get(column));
+            }
+            return r;
+        }
+        /*
+         * End of function
+         */
+
     public Boolean elementDisplaysSimple(String selector) {
 
         WebElement foundElement = savedWebElement(selector);
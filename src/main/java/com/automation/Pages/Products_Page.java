@@ -0,0 +1,55 @@
+package com.automation.Pages;
+
+import org.openqa.selenium.WebDriver;
+/**
+ * @author Manaf Al-Darabseh
+ */
+
+/**
+ * Products page class, the page a user lands on after logging in.
+ * Uses property-based selectors for element locators.
+ */
+public class Products_Page extends BasePage {
+
+    // Selector keys from properties file
+    private static final String TITLE = "products.title";
+    private static final String INVENTORY_LIST = "products.inventory.list";
+
+    private static final String PAGE_PATH = "/inventory.html";
+
+    /**
+     * Constructor for Products_Page
+     * @param driver WebDriver instance
+     */
+    public Products_Page(WebDriver driver) {
+        super(driver);
+    }
+
+    /**
+     * Checks if the products page is shown, which only a logged-in user gets
+     * @return true if the browser is on the products page and the product list is displayed
+     */
+    public boolean isDisplayed() {
+        String url = driver.getCurrentUrl();
+        boolean displayed = url != null && url.contains(PAGE_PATH) && elementDisplays(INVENTORY_LIST);
+        logger.debug("Products page display status: {} ({})", displayed, url);
+        return displayed;
+    }
+
+    /**
+     * Gets the page title shown above the product list
+     * @return the title text
+     */
+    public String getTitle() {
+        return getText(TITLE);
+    }
+
+    /**
+     * Reloads the page in the browser
+     * @return Products_Page instance for method chaining
+     */
+    public Products_Page reload() {
+        driver.navigate().refresh();
+        return this;
+    }
+}
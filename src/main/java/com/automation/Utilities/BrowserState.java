@@ -0,0 +1,241 @@
+package com.automation.Utilities;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * The state a page keeps in the browser: the current URL, the cookies of its
+ * domain, and its localStorage and sessionStorage.
+ *
+ * {@link #capture(WebDriver)} takes it from one browser and
+ * {@link #restore(WebDriver)} puts it into another, e.g. a fresh browser of the
+ * next scenario. Cookies and storage belong to the origin of the URL, so only
+ * that origin is captured and restored.
+ */
+public class BrowserState {
+
+    private static final Logger logger = LogManager.getLogger(BrowserState.class);
+
+    private static final String READ_STORAGE =
+            "var s = window[arguments[0]], r = {};"
+            + " for (var i = 0; i < s.length; i++) { r[s.key(i)] = s.getItem(s.key(i)); }"
+            + " return r;";
+    private static final String WRITE_STORAGE =
+            "var s = window[arguments[0]], v = arguments[1]; s.clear();"
+            + " for (var k in v) { s.setItem(k, v[k]); }";
+
+    private String url;
+    private List<StoredCookie> cookies = new ArrayList<>();
+    private Map<String, String> localStorage = new LinkedHashMap<>();
+    private Map<String, String> sessionStorage = new LinkedHashMap<>();
+
+    /**
+     * Captures the state of the page the browser is on.
+     *
+     * @param driver the browser
+     * @return the state
+     */
+    public static BrowserState capture(WebDriver driver) {
+        BrowserState state = new BrowserState();
+        state.url = driver.getCurrentUrl();
+        for (Cookie cookie : driver.manage().getCookies()) {
+            state.cookies.add(new StoredCookie(cookie));
+        }
+        state.localStorage = readStorage(driver, "localStorage");
+        state.sessionStorage = readStorage(driver, "sessionStorage");
+        logger.debug("Captured {} cookies, {} localStorage and {} sessionStorage entries at {}",
+                state.cookies.size(), state.localStorage.size(), state.sessionStorage.size(), state.url);
+        return state;
+    }
+
+    /**
+     * Puts the state into the browser and loads the captured URL. The origin is
+     * opened first, as cookies and storage can only be set from a page of it.
+     *
+     * @param driver the browser
+     */
+    public void restore(WebDriver driver) {
+        URI uri = URI.create(url);
+        if (uri.getHost() == null) {
+            throw new RuntimeException(String.format("Cannot restore the browser state of %s: it has no origin", url));
+        }
+        driver.get(uri.getScheme() + "://" + uri.getRawAuthority() + "/");
+        driver.manage().deleteAllCookies();
+        for (StoredCookie cookie : cookies) {
+            try {
+                driver.manage().addCookie(cookie.toCookie());
+            } catch (RuntimeException e) {
+                logger.warn("Could not restore the cookie {} of {}: {}", cookie.getName(), cookie.getDomain(), e.getMessage());
+            }
+        }
+        writeStorage(driver, "localStorage", localStorage);
+        writeStorage(driver, "sessionStorage", sessionStorage);
+        driver.get(url);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> readStorage(WebDriver driver, String storage) {
+        Map<String, String> entries = new LinkedHashMap<>();
+        Object result = ((JavascriptExecutor) driver).executeScript(READ_STORAGE, storage);
+        if (result instanceof Map) {
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) result).entrySet()) {
+                entries.put(entry.getKey(), String.valueOf(entry.getValue()));
+            }
+        }
+        return entries;
+    }
+
+    private static void writeStorage(WebDriver driver, String storage, Map<String, String> entries) {
+        ((JavascriptExecutor) driver).executeScript(WRITE_STORAGE, storage, entries);
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public List<StoredCookie> getCookies() {
+        return cookies;
+    }
+
+    public void setCookies(List<StoredCookie> cookies) {
+        this.cookies = cookies;
+    }
+
+    public Map<String, String> getLocalStorage() {
+        return localStorage;
+    }
+
+    public void setLocalStorage(Map<String, String> localStorage) {
+        this.localStorage = localStorage;
+    }
+
+    public Map<String, String> getSessionStorage() {
+        return sessionStorage;
+    }
+
+    public void setSessionStorage(Map<String, String> sessionStorage) {
+        this.sessionStorage = sessionStorage;
+    }
+
+    /**
+     * A cookie in a form that can be written as JSON; the expiry is in epoch
+     * milliseconds, null for a session cookie.
+     */
+    public static class StoredCookie {
+        private String name;
+        private String value;
+        private String domain;
+        private String path;
+        private Long expiry;
+        private boolean secure;
+        private boolean httpOnly;
+        private String sameSite;
+
+        public StoredCookie() {
+        }
+
+        public StoredCookie(Cookie cookie) {
+            this.name = cookie.getName();
+            this.value = cookie.getValue();
+            this.domain = cookie.getDomain();
+            this.path = cookie.getPath();
+            this.expiry = cookie.getExpiry() == null ? null : cookie.getExpiry().getTime();
+            this.secure = cookie.isSecure();
+            this.httpOnly = cookie.isHttpOnly();
+            this.sameSite = cookie.getSameSite();
+        }
+
+        public Cookie toCookie() {
+            Cookie.Builder builder = new Cookie.Builder(name, value)
+                    .domain(domain)
+                    .path(path)
+                    .isSecure(secure)
+                    .isHttpOnly(httpOnly);
+            if (expiry != null) {
+                builder.expiresOn(new Date(expiry));
+            }
+            if (sameSite != null) {
+                builder.sameSite(sameSite);
+            }
+            return builder.build();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            this.value = value;
+        }
+
+        public String getDomain() {
+            return domain;
+        }
+
+        public void setDomain(String domain) {
+            this.domain = domain;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public Long getExpiry() {
+            return expiry;
+        }
+
+        public void setExpiry(Long expiry) {
+            this.expiry = expiry;
+        }
+
+        public boolean isSecure() {
+            return secure;
+        }
+
+        public void setSecure(boolean secure) {
+            this.secure = secure;
+        }
+
+        public boolean isHttpOnly() {
+            return httpOnly;
+        }
+
+        public void setHttpOnly(boolean httpOnly) {
+            this.httpOnly = httpOnly;
+        }
+
+        public String getSameSite() {
+            return sameSite;
+        }
+
+        public void setSameSite(String sameSite) {
+            this.sameSite = sameSite;
+        }
+    }
+}
@@ -184,6 +184,14 @@ public class PathManager {
         return getAbsolutePath("src/test/resources/testdata/" + dataFileName);
     }
     
+    /**
+     * Gets the test data directory, which holds fixture files such as CSV/JSON seeds
+     * @return The absolute path to the test data directory
+     */
+    public static String getTestDataDirectory() {
+        return getAbsolutePath("src/test/resources/testdata");
+    }
+    
     /**
      * Gets the path to a driver executable
      * @param driverFileName The name of the driver file
@@ -0,0 +1,203 @@
+package com.automation.Utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+
+import com.automation.utils.UtilProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Logged-in browser state per user role, so scenarios that only need a
+ * logged-in user do not go through the login form.
+ *
+ * The first {@link #login(WebDriver, String, UiLogin)} of a role logs in
+ * through the UI and captures the {@link BrowserState} it leads to; later ones
+ * restore it into their browser. A restored session the application no longer
+ * accepts (it redirects away from the captured page) is dropped and the role
+ * logs in through the UI again.
+ *
+ * Settings (Execution.properties): session.role.&lt;role&gt;.username and
+ * .password hold the credentials of each role. States are kept for the run and,
+ * with session.cache.persist=true, in session.cache.dir for
+ * session.cache.ttlMinutes, so later runs skip the UI login too. Those files hold
+ * live session cookies. session.cache.enabled=false logs in through the UI every time.
+ */
+public class SessionCache {
+
+    private static final Logger logger = LogManager.getLogger(SessionCache.class);
+
+    private static volatile SessionCache instance;
+
+    private final Map<String, Entry> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final boolean enabled;
+    private final boolean persist;
+    private final File dir;
+    private final long ttlMillis;
+
+    /**
+     * Logs a user in through the login form.
+     */
+    public interface UiLogin {
+        void login(String username, String password);
+    }
+
+    private SessionCache() {
+        UtilProperties properties = UtilProperties.getInstance();
+        enabled = Boolean.parseBoolean(properties.getProperty("session.cache.enabled", "true"));
+        persist = Boolean.parseBoolean(properties.getProperty("session.cache.persist", "false"));
+        dir = new File(PathManager.getAbsolutePath(properties.getProperty("session.cache.dir", "test-output/sessions")));
+        ttlMillis = TimeUnit.MINUTES.toMillis(properties.getInteger("session.cache.ttlMinutes", 30));
+    }
+
+    public static SessionCache getInstance() {
+        if (instance == null) {
+            synchronized (SessionCache.class) {
+                if (instance == null) {
+                    instance = new SessionCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Logs the browser in as the role: from the cached state when there is a
+     * valid one, otherwise through the UI, caching the state it leads to.
+     *
+     * @param driver the browser
+     * @param role user role, e.g. "standard"
+     * @param uiLogin logs in through the login form; the browser is on the base URL
+     * @return whether the cached state was used
+     */
+    public boolean login(WebDriver driver, String role, UiLogin uiLogin) {
+        String username = credential(role, "username");
+        String password = credential(role, "password");
+        if (!enabled) {
+            uiLogin.login(username, password);
+            return false;
+        }
+        synchronized (locks.computeIfAbsent(role, key -> new Object())) {
+            BrowserState state = get(role);
+            if (state != null) {
+                state.restore(driver);
+                if (samePage(state.getUrl(), driver.getCurrentUrl())) {
+                    logger.debug("Restored the '{}' session at {}", role, state.getUrl());
+                    return true;
+                }
+                logger.info("The cached '{}' session was not accepted ({} instead of {}); logging in again",
+                        role, driver.getCurrentUrl(), state.getUrl());
+                invalidate(role);
+            }
+            uiLogin.login(username, password);
+            put(role, BrowserState.capture(driver));
+            logger.info("Cached the '{}' session after logging in through the UI", role);
+            return false;
+        }
+    }
+
+    /**
+     * @param role user role
+     * @return the cached state of the role, or null when there is none that is fresh
+     */
+    public BrowserState get(String role) {
+        Entry entry = sessions.get(role);
+        if (entry == null && persist) {
+            entry = read(role);
+            if (entry != null) {
+                sessions.put(role, entry);
+            }
+        }
+        if (entry == null || System.currentTimeMillis() - entry.capturedAt > ttlMillis) {
+            return null;
+        }
+        return entry.state;
+    }
+
+    /**
+     * Caches the logged-in state of a role.
+     *
+     * @param role user role
+     * @param state its browser state
+     */
+    public void put(String role, BrowserState state) {
+        Entry entry = new Entry();
+        entry.capturedAt = System.currentTimeMillis();
+        entry.state = state;
+        sessions.put(role, entry);
+        if (persist) {
+            PathManager.ensureDirectoryExists(dir.getPath());
+            try {
+                mapper.writerWithDefaultPrettyPrinter().writeValue(file(role), entry);
+            } catch (IOException e) {
+                logger.warn("Could not save the '{}' session to {}: {}", role, file(role), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Drops the cached state of a role, e.g. after a scenario logged it out.
+     *
+     * @param role user role
+     */
+    public void invalidate(String role) {
+        sessions.remove(role);
+        if (persist && file(role).exists() && !file(role).delete()) {
+            logger.warn("Could not delete the cached session {}", file(role));
+        }
+    }
+
+    private Entry read(String role) {
+        File file = file(role);
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            return mapper.readValue(file, Entry.class);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable cached session {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private File file(String role) {
+        return new File(dir, role.replaceAll("[^A-Za-z0-9_.-]", "_") + ".json");
+    }
+
+    private static String credential(String role, String name) {
+        String key = String.format("session.role.%s.%s", role, name);
+        String value = UtilProperties.getInstance().getProperty(key, "");
+        if (value.isEmpty()) {
+            throw new RuntimeException(String.format("No %s for the role '%s'; set %s", name, role, key));
+        }
+        return value;
+    }
+
+    private static boolean samePage(String expected, String actual) {
+        try {
+            URI a = URI.create(expected);
+            URI b = URI.create(actual);
+            return Objects.equals(a.getHost(), b.getHost()) && Objects.equals(a.getPath(), b.getPath());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * A cached state and when it was captured, in epoch milliseconds.
+     */
+    public static class Entry {
+        public long capturedAt;
+        public BrowserState state;
+    }
+}
@@ -38,9 +38,21 @@ public class TestContext {
     private final DirectoryManager directoryManager;
 
     public TestContext() {
-        // Initialize directory manager
-        logger.debug("Initializing DirectoryManager");
-        directoryManager = new DirectoryManager();
+        this(new DirectoryManager(), new MobileDriverProviderCreator(), new ScenarioContext());
+    }
+
+    /**
+     * Creates the context of one scenario from the collaborators the object
+     * factory injects; the directory manager and the mobile driver manager
+     * live for the whole suite, the scenario context only for this scenario.
+     *
+     * @param directoryManager creates the test output directories
+     * @param mobileDriverManager Appium driver manager
+     * @param scenarioContext state shared by the steps of the scenario
+     */
+    public TestContext(DirectoryManager directoryManager, MobileDriverProviderCreator mobileDriverManager,
+                       ScenarioContext scenarioContext) {
+        this.directoryManager = directoryManager;
 
         // Initialize test output directories
         logger.debug("Initializing test directories");
@@ -50,8 +62,8 @@ public class TestContext {
         logger.debug("Initializing DriverManager");
         driverManager = DriverManager.getInstance();
         pageObjectManager = new PageObjectManager(driverManager.getDriver());
-        mobileDriverManager = new MobileDriverProviderCreator();
-        scenarioContext = new ScenarioContext();
+        this.mobileDriverManager = mobileDriverManager;
+        this.scenarioContext = scenarioContext;
     }
 
     public WebDriver getDriver() {
@@ -78,22 +90,36 @@ public class TestContext {
         return driverManager;
     }
 
+    /**
+     * Prepares the open browser for another attempt of the same scenario
+     * instead of quitting it: cookies are deleted, a blank page is loaded and
+     * the scenario context is cleared. Falls back to {@link #tearDown()} when
+     * the browser no longer responds.
+     */
+    public void resetForRetry() {
+        try {
+            WebDriver driver = driverManager.getDriver();
+            driver.manage().deleteAllCookies();
+            driver.get("about:blank");
+            scenarioContext.clear();
+        } catch (Exception e) {
+            logger.warn("Could not reset the browser for a retry, restarting it: {}", e.getMessage());
+            tearDown();
+        }
+    }
+
     /**
      * Cleans up resources after test execution.
      * This includes:
-     * 1. Closing and quitting WebDriver instances
+     * 1. Quitting the WebDriver instance in the background (see DriverReaper)
      * 2. Cleaning up temporary files
      * 3. Resetting context state
      */
     public void tearDown() {
         try {
-            // Clean up WebDriver resources
+            // Hand the browser to the reaper; closeDriver() quits it in the background
             logger.debug("Tearing down WebDriver resources");
             if (driverManager != null) {
-                WebDriver driver = driverManager.getDriver();
-                if (driver != null) {
-                    driver.quit();
-                }
                 driverManager.closeDriver();
             }
 
@@ -105,12 +131,6 @@ public class TestContext {
 
         } catch (Exception e) {
             logger.error("Error during test context cleanup: {}", e.getMessage());
-        } finally {
-            // Ensure the driver reference is cleared
-            logger.debug("Ensuring driver reference is cleared");
-            if (driverManager != null) {
-                driverManager.closeDriver();
-            }
         }
     }
 
@@ -0,0 +1,125 @@
+package com.automation.manager;
+
+import com.automation.utils.ExecutionContext;
+import com.automation.utils.UtilProperties;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects timing for every query run through {@link MYSQLConnectionManager}.
+ *
+ * Each query is split into connection-acquire, execute and fetch time and tagged
+ * with the scenario and step from {@link ExecutionContext}. Queries slower than
+ * _DB_SLOW_QUERY_MS (default 500) are written to the slow-query log, and the
+ * per-scenario totals can be drained into the report once the scenario ends.
+ */
+public class DBQueryMetrics {
+
+    private static final Logger logger = LogManager.getLogger(DBQueryMetrics.class);
+    private static final Logger slowQueryLog = LogManager.getLogger("com.automation.SlowQueryLog");
+    private static final long DEFAULT_SLOW_QUERY_MS = 500;
+
+    private static final DBQueryMetrics instance = new DBQueryMetrics();
+
+    private final Map<String, List<QueryRecord>> recordsByScenario = new ConcurrentHashMap<>();
+    private final long slowQueryNanos;
+
+    private DBQueryMetrics() {
+        slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(
+                UtilProperties.getInstance().getLong("_DB_SLOW_QUERY_MS", DEFAULT_SLOW_QUERY_MS));
+    }
+
+    public static DBQueryMetrics getInstance() {
+        return instance;
+    }
+
+    /**
+     * Records one query execution against the scenario running on this thread.
+     * Queries outside a scenario (suite setup) are only logged.
+     * @param query named query or SQL as passed by the caller
+     * @param acquireNanos time spent obtaining the connection
+     * @param executeNanos time until the driver returned the result set
+     * @param fetchNanos time spent reading the rows
+     * @param rows number of rows read
+     */
+    public void record(String query, long acquireNanos, long executeNanos, long fetchNanos, int rows) {
+        String scenarioId = ExecutionContext.getScenarioId();
+        QueryRecord record = new QueryRecord(query, ExecutionContext.getScenarioName(), ExecutionContext.getStepText(),
+                acquireNanos, executeNanos, fetchNanos, rows);
+        if (scenarioId != null) {
+            recordsByScenario.computeIfAbsent(scenarioId,
+                    key -> Collections.synchronizedList(new ArrayList<>())).add(record);
+        }
+
+        if (record.getTotalNanos() >= slowQueryNanos) {
+            slowQueryLog.warn("Slow query ({} ms: acquire {} / execute {} / fetch {}, {} rows) in scenario '{}', step '{}': {}",
+                    millis(record.getTotalNanos()), millis(acquireNanos), millis(executeNanos), millis(fetchNanos),
+                    rows, record.scenarioName, record.stepText, query);
+        } else {
+            logger.debug("Query took {} ms ({} rows): {}", millis(record.getTotalNanos()), rows, query);
+        }
+    }
+
+    /**
+     * Removes the records of a scenario and formats them as a report summary.
+     * @param scenarioId scenario id as published in {@link ExecutionContext}
+     * @return the summary, or null if the scenario ran no queries
+     */
+    public String drainSummary(String scenarioId) {
+        List<QueryRecord> records = scenarioId == null ? null : recordsByScenario.remove(scenarioId);
+        if (records == null || records.isEmpty()) {
+            return null;
+        }
+        long acquire = 0, execute = 0, fetch = 0, rows = 0;
+        StringBuilder details = new StringBuilder();
+        synchronized (records) {
+            for (QueryRecord record : records) {
+                acquire += record.acquireNanos;
+                execute += record.executeNanos;
+                fetch += record.fetchNanos;
+                rows += record.rows;
+                details.append(String.format("%n  %6d ms  %5d rows  [%s]  %s", millis(record.getTotalNanos()),
+                        record.rows, record.stepText == null ? "hook" : record.stepText, record.query));
+            }
+        }
+        return String.format("DB time: %d ms over %d queries (acquire %d ms, execute %d ms, fetch %d ms, %d rows)%s",
+                millis(acquire + execute + fetch), records.size(), millis(acquire), millis(execute), millis(fetch),
+                rows, details);
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static class QueryRecord {
+        private final String query;
+        private final String scenarioName;
+        private final String stepText;
+        private final long acquireNanos;
+        private final long executeNanos;
+        private final long fetchNanos;
+        private final int rows;
+
+        QueryRecord(String query, String scenarioName, String stepText,
+                    long acquireNanos, long executeNanos, long fetchNanos, int rows) {
+            this.query = query;
+            this.scenarioName = scenarioName;
+            this.stepText = stepText;
+            this.acquireNanos = acquireNanos;
+            this.executeNanos = executeNanos;
+            this.fetchNanos = fetchNanos;
+            this.rows = rows;
+        }
+
+        long getTotalNanos() {
+            return acquireNanos + executeNanos + fetchNanos;
+        }
+    }
+}
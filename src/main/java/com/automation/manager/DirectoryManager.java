@@ -1,19 +1,28 @@
 package com.automation.manager;
 
 import com.automation.Utilities.PathManager;
+import com.automation.utils.Scoped;
 import java.io.File;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+@Scoped(Scoped.Lifetime.SUITE)
 public class DirectoryManager {
 
     private static final Logger logger = LogManager.getLogger(DirectoryManager.class);
 
+    private boolean initialized;
+
     /**
      * Initializes required test output directories.
      * Uses PathManager to ensure cross-platform compatibility.
+     * Only the first call creates them.
      */
-    public void initializeTestDirectories() {
+    public synchronized void initializeTestDirectories() {
+        if (initialized) {
+            return;
+        }
+        initialized = true;
         String screenshotPath = PathManager.getScreenshotPath("").replace(".png", "");
         String reportsPath = PathManager.getReportsPath();
 
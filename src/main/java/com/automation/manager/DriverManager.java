@@ -5,10 +5,15 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
 import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.edge.EdgeDriver;
+import org.openqa.selenium.edge.EdgeDriverService;
 import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.GeckoDriverService;
+import org.openqa.selenium.remote.service.DriverService;
 import org.openqa.selenium.safari.SafariDriver;
+import org.openqa.selenium.safari.SafariDriverService;
 
 import com.automation.Enums.DriverType;
 import com.automation.Enums.EnvironmentType;
@@ -21,6 +26,8 @@ import java.util.Arrays;
  */
 public class DriverManager {
     private WebDriver driver;
+    // Service that started the driver; the DriverReaper stops it when the browser does not quit
+    private DriverService service;
     private static DriverType driverType;
     private static EnvironmentType environmentType;
     private static final String CHROME_DRIVER_PROPERTY = "webdriver.chrome.driver";
@@ -104,7 +111,9 @@ public class DriverManager {
                             .clearResolutionCache()
                             .driverVersion("latest")
                             .setup();
-                    localDriver = new FirefoxDriver();
+                    GeckoDriverService geckoService = GeckoDriverService.createDefaultService();
+                    service = geckoService;
+                    localDriver = new FirefoxDriver(geckoService);
                     break;
                 case CHROME:
                     logger.debug("Creating Chrome driver");
@@ -118,12 +127,16 @@ public class DriverManager {
                             .clearResolutionCache()
                             .driverVersion("latest")
                             .setup();
-                    localDriver = new EdgeDriver();
+                    EdgeDriverService edgeService = EdgeDriverService.createDefaultService();
+                    service = edgeService;
+                    localDriver = new EdgeDriver(edgeService);
                     break;
                 case SAFARI:
                     logger.debug("Creating Safari driver");
                     // Safari doesn't need WebDriverManager setup
-                    localDriver = new SafariDriver();
+                    SafariDriverService safariService = SafariDriverService.createDefaultService();
+                    service = safariService;
+                    localDriver = new SafariDriver(safariService);
                     break;
                 default:
                     throw new RuntimeException("Unsupported browser type: " + driverType);
@@ -213,7 +226,9 @@ public class DriverManager {
                     .driverVersion("latest")
                     .setup();
 
-            WebDriver chromeDriver = new ChromeDriver(options);
+            ChromeDriverService chromeService = ChromeDriverService.createDefaultService();
+            service = chromeService;
+            WebDriver chromeDriver = new ChromeDriver(chromeService, options);
             if (chromeDriver == null) {
                 throw new RuntimeException("Failed to create Chrome driver");
             }
@@ -226,22 +241,23 @@ public class DriverManager {
 
     }
 
+    /**
+     * Hands the browser to the {@link DriverReaper}, which quits it in the
+     * background, and forgets it; the next {@link #getDriver()} starts a new one.
+     * quit() closes every window, so they are not closed one by one first.
+     */
     public synchronized void closeDriver() {
         try {
             if (driver != null) {
-                logger.debug("Closing WebDriver instance");
-                // Close all associated windows first
-                for (String handle : driver.getWindowHandles()) {
-                    driver.switchTo().window(handle).close();
-                }
-                // Then quit the driver
-                driver.quit();
+                logger.debug("Handing WebDriver instance to the reaper");
+                DriverReaper.getInstance().reap(driver, service);
             }
         } catch (Exception e) {
             logger.error("Error during driver cleanup: " + e.getMessage(), e);
         } finally {
             // Always null out the driver reference
             driver = null;
+            service = null;
             logger.debug("WebDriver instance set to null");
         }
     }
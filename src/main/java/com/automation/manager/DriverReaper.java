@@ -0,0 +1,163 @@
+package com.automation.manager;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.service.DriverService;
+
+import com.automation.utils.UtilProperties;
+
+/**
+ * Quits browsers on background threads, so a scenario's teardown does not
+ * wait for the browser to shut down before the next scenario starts.
+ *
+ * At most driver.reaper.threads browsers quit at once and
+ * driver.reaper.queue more wait; beyond that the caller quits the browser
+ * itself, so a slow machine cannot pile up browsers. Browsers handed over
+ * after {@link #shutdown()} are quit by the caller as well. A browser that has not
+ * quit after driver.reaper.timeoutSeconds has its driver service stopped,
+ * which kills the driver process and the browser it started.
+ *
+ * {@link #shutdown()} waits for every pending quit; call it at the end of the
+ * suite. The next {@link #getInstance()} starts a new reaper.
+ */
+public class DriverReaper {
+
+    private static final Logger logger = LogManager.getLogger(DriverReaper.class);
+
+    private static DriverReaper instance;
+
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService watchdog;
+    private final long timeoutSeconds;
+    private final AtomicInteger quits = new AtomicInteger();
+    private final AtomicInteger forced = new AtomicInteger();
+    private final AtomicLong quitMillis = new AtomicLong();
+
+    private DriverReaper() {
+        UtilProperties properties = UtilProperties.getInstance();
+        int threads = Math.max(1, properties.getInteger("driver.reaper.threads", 2));
+        int queue = Math.max(1, properties.getInteger("driver.reaper.queue", 4));
+        timeoutSeconds = Math.max(1, properties.getInteger("driver.reaper.timeoutSeconds", 20));
+        AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queue),
+                runnable -> daemon(runnable, "driver-reaper-" + count.incrementAndGet()),
+                DriverReaper::runInline);
+        watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "driver-reaper-watchdog"));
+    }
+
+    public static synchronized DriverReaper getInstance() {
+        if (instance == null) {
+            instance = new DriverReaper();
+        }
+        return instance;
+    }
+
+    /**
+     * Quits the browser in the background.
+     *
+     * @param driver the browser
+     * @param service the driver service that started it, stopped when quitting
+     *                takes too long; null when unknown
+     */
+    public void reap(WebDriver driver, DriverService service) {
+        executor.execute(() -> quit(driver, service));
+    }
+
+    /**
+     * Runs a quit the executor does not take on the caller's thread: when the
+     * queue is full, and also once the suite has shut the reaper down, where
+     * CallerRunsPolicy would drop it and leave the browser running.
+     */
+    private static void runInline(Runnable quit, ThreadPoolExecutor executor) {
+        quit.run();
+    }
+
+    /**
+     * Waits for all pending quits and stops the reaper threads.
+     */
+    public static void shutdown() {
+        DriverReaper reaper;
+        synchronized (DriverReaper.class) {
+            reaper = instance;
+            instance = null;
+        }
+        if (reaper == null) {
+            return;
+        }
+        reaper.executor.shutdown();
+        try {
+            // Every quit is bounded by the watchdog, which then stops the service
+            if (!reaper.executor.awaitTermination(reaper.timeoutSeconds * 2 + 10, TimeUnit.SECONDS)) {
+                logger.warn("Browsers still quitting after the suite ended: {}", reaper.executor.getActiveCount());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        reaper.watchdog.shutdownNow();
+        if (reaper.quits.get() > 0) {
+            logger.info("Driver reaper: {} browsers quit in the background ({} ms in total), {} killed after {} s",
+                    reaper.quits.get(), reaper.quitMillis.get(), reaper.forced.get(), reaper.timeoutSeconds);
+        }
+    }
+
+    private void quit(WebDriver driver, DriverService service) {
+        long start = System.nanoTime();
+        ScheduledFuture<?> kill;
+        try {
+            kill = watchdog.schedule(() -> forceStop(service), timeoutSeconds, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException e) {
+            // The reaper has been shut down; the caller waits for this quit itself
+            kill = null;
+        }
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            logger.warn("Error while quitting the browser: {}", e.getMessage());
+        } finally {
+            if (kill != null) {
+                kill.cancel(false);
+            }
+            // quit() normally stops the service too; this covers a quit that failed
+            stopQuietly(service);
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            quits.incrementAndGet();
+            quitMillis.addAndGet(millis);
+            logger.debug("Browser quit in {} ms", millis);
+        }
+    }
+
+    private void forceStop(DriverService service) {
+        forced.incrementAndGet();
+        logger.warn("Browser did not quit within {} s; stopping its driver service", timeoutSeconds);
+        stopQuietly(service);
+    }
+
+    private static void stopQuietly(DriverService service) {
+        if (service == null || !service.isRunning()) {
+            return;
+        }
+        try {
+            service.stop();
+        } catch (Exception e) {
+            logger.warn("Could not stop the driver service: {}", e.getMessage());
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
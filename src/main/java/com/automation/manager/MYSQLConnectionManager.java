@@ -5,43 +5,260 @@ package com.automation.manager;
  * @author Manaf Al-Darabseh
  */
 
+import com.automation.Utilities.PathManager;
 import com.automation.utils.UtilProperties;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
-import com.mysql.cj.jdbc.MysqlDataSource;
+import com.mysql.cj.jdbc.MysqlConnectionPoolDataSource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.h2.jdbcx.JdbcDataSource;
 
+import javax.sql.ConnectionPoolDataSource;
 import javax.sql.DataSource;
+import java.io.File;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
+/**
+ * Entry point for database access from pages and steps.
+ *
+ * The backing database is chosen with _DB_MODE:
+ * - mysql (default): the server configured by _MYSQL_DB_URL
+ * - embedded: an in-process H2 database in MySQL compatibility mode, created on
+ *   first use from testdata/schema.sql and seeded from the fixture files, so DB
+ *   scenarios can run on isolated runners without network round trips
+ *
+ * One instance is kept per mode; named queries from Queries.properties work the
+ * same against either backend. Connections come from a pool of at most
+ * _DB_POOL_SIZE connections, so closing one returns it for the next query.
+ */
 public class MYSQLConnectionManager {
+	private static final Logger logger = LogManager.getLogger(MYSQLConnectionManager.class);
+	private static final String MODE_MYSQL = "mysql";
+	private static final String MODE_EMBEDDED = "embedded";
+	private static final long DEFAULT_WAIT_INITIAL_MS = 50;
+	private static final long DEFAULT_WAIT_MAX_MS = 1000;
+	private static final int DEFAULT_POOL_SIZE = 10;
+	private static final String DEFAULT_EMBEDDED_URL =
+			"jdbc:h2:mem:automation;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1";
+
 	DataSource ds = null;
 	private static Map<String, MYSQLConnectionManager> instances = new HashMap<String, MYSQLConnectionManager>();
 
 	public static MYSQLConnectionManager getInstance() {
-		MYSQLConnectionManager instance = null;
+		String mode = UtilProperties.getInstance().getProperty("_DB_MODE", MODE_MYSQL).toLowerCase();
+		// Each embedded database URL is a database of its own
+		String key = MODE_EMBEDDED.equals(mode) ? mode + " " + getEmbeddedUrl() : mode;
+		synchronized (instances) {
+			MYSQLConnectionManager instance = instances.get(key);
+			if (instance == null) {
+				instance = new MYSQLConnectionManager(mode);
+				// Cached only once seeded, so a failed seed is retried by the next caller
+				if (MODE_EMBEDDED.equals(mode)) {
+					try {
+						instance.seedEmbeddedDatabase();
+					} catch (RuntimeException e) {
+						instance.discardEmbeddedDatabase();
+						throw e;
+					}
+				}
+				instances.put(key, instance);
+			}
+			return instance;
+		}
+	}
+
+	private static String getEmbeddedUrl() {
+		return UtilProperties.getInstance().getProperty("_EMBEDDED_DB_URL", DEFAULT_EMBEDDED_URL);
+	}
+
+	private MYSQLConnectionManager(String mode) {
+		switch (mode) {
+		case MODE_MYSQL:
+			ds = getMySQLDataSource();
+			break;
+		case MODE_EMBEDDED:
+			ds = getEmbeddedDataSource();
+			break;
+		default:
+			throw new RuntimeException(String.format("Invalid _DB_MODE '%s'. Must be one of: %s, %s", mode,
+					MODE_MYSQL, MODE_EMBEDDED));
+		}
+	}
 
-		instance = new MYSQLConnectionManager();
+	private DataSource getEmbeddedDataSource() {
+		JdbcDataSource h2DS = new JdbcDataSource();
+		h2DS.setURL(getEmbeddedUrl());
+		h2DS.setUser("sa");
+		h2DS.setPassword("");
+		return pooled(h2DS);
+	}
 
-		return instance;
+	/**
+	 * Creates the embedded schema from testdata/schema.sql (when present) and bulk
+	 * loads the fixture files into it.
+	 */
+	private void seedEmbeddedDatabase() {
+		long start = System.currentTimeMillis();
+		File schema = new File(PathManager.getTestDataPath("schema.sql"));
+		if (schema.exists()) {
+			try (Connection con = ds.getConnection(); Statement stmt = con.createStatement()) {
+				stmt.execute("RUNSCRIPT FROM '" + schema.getAbsolutePath().replace("'", "''") + "'");
+			} catch (SQLException e) {
+				throw new RuntimeException("Failed to create embedded schema from " + schema + ": " + e.getMessage(), e);
+			}
+		}
+		new MYSQLFixtureLoader(this).loadAll();
+		logger.info("Embedded database ready in {} ms", System.currentTimeMillis() - start);
 	}
 
-	private MYSQLConnectionManager() {
-		ds = getMySQLDataSource();
+	/**
+	 * Undoes a failed seed: the in-memory database outlives its connections
+	 * (DB_CLOSE_DELAY=-1), so the partly loaded tables are dropped for the next
+	 * attempt to start empty, and the pool of this instance is closed.
+	 */
+	private void discardEmbeddedDatabase() {
+		try (Connection con = ds.getConnection(); Statement stmt = con.createStatement()) {
+			stmt.execute("DROP ALL OBJECTS");
+		} catch (SQLException e) {
+			logger.warn("Could not clear the embedded database after a failed seed: {}", e.getMessage());
+		} finally {
+			((JdbcConnectionPool) ds).dispose();
+		}
 	}
 
 	private DataSource getMySQLDataSource() {
-		MysqlDataSource mysqlDS = new MysqlDataSource();
-		mysqlDS.setURL(UtilProperties.getInstance().getProperty("_MYSQL_DB_URL"));
+		MysqlConnectionPoolDataSource mysqlDS = new MysqlConnectionPoolDataSource();
+		mysqlDS.setURL(withBatchRewrite(UtilProperties.getInstance().getProperty("_MYSQL_DB_URL")));
 		mysqlDS.setUser(UtilProperties.getInstance().getProperty("_MYSQL_DB_USERNAME"));
 		mysqlDS.setPassword(UtilProperties.getInstance().getProperty("_MYSQL_DB_PASSWORD"));
-		return mysqlDS;
+		return pooled(mysqlDS);
+	}
+
+	/**
+	 * Keeps closed connections open for reuse, so steps and waiters do not pay a
+	 * new connection per query. H2's pool works with any ConnectionPoolDataSource.
+	 */
+	private static DataSource pooled(ConnectionPoolDataSource source) {
+		JdbcConnectionPool pool = JdbcConnectionPool.create(source);
+		pool.setMaxConnections(UtilProperties.getInstance().getInteger("_DB_POOL_SIZE", DEFAULT_POOL_SIZE));
+		return pool;
+	}
+
+	/**
+	 * Lets the driver collapse JDBC batches into multi-row INSERTs, which is what
+	 * makes {@link MYSQLFixtureLoader} fast. An explicit setting in the URL wins.
+	 */
+	private static String withBatchRewrite(String url) {
+		if (url == null || url.contains("rewriteBatchedStatements")) {
+			return url;
+		}
+		return url + (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+	}
+
+	/**
+	 * Takes a connection from the pool. Callers own the connection and must close
+	 * it, which returns it to the pool.
+	 */
+	public Connection getConnection() throws SQLException {
+		return ds.getConnection();
+	}
+
+	/**
+	 * Returns the SQL registered under the given name in Queries.properties, or
+	 * the argument itself when it is not a registered name.
+	 */
+	public static String resolveQuery(String query) {
+		String registered = UtilProperties.getInstance().getProperty(query);
+		return registered == null ? query : registered;
+	}
+
+	/**
+	 * Polls a query until its rows satisfy the condition, for checks that follow
+	 * asynchronous backend writes (e.g. "wait until the order row appears").
+	 *
+	 * One pooled connection and prepared statement are reused for every poll. The
+	 * delay between polls grows exponentially from _DB_WAIT_INITIAL_MS up to
+	 * _DB_WAIT_MAX_MS, with random jitter so parallel waiters do not poll in step.
+	 *
+	 * @param query     named query from Queries.properties or plain SQL
+	 * @param condition predicate over the rows, each row keyed by column label (case-insensitive)
+	 * @param timeout   overall deadline
+	 * @return the matching rows together with the number of polls and time to converge
+	 * @throws RuntimeException if the deadline passes or the query fails
+	 */
+	public WaitResult waitForQuery(String query, Predicate<List<Map<String, String>>> condition, Duration timeout) {
+		long initialDelay = UtilProperties.getInstance().getLong("_DB_WAIT_INITIAL_MS", DEFAULT_WAIT_INITIAL_MS);
+		long maxDelay = UtilProperties.getInstance().getLong("_DB_WAIT_MAX_MS", DEFAULT_WAIT_MAX_MS);
+		String sql = resolveQuery(query);
+		long start = System.nanoTime();
+		long deadline = start + timeout.toNanos();
+		long delay = initialDelay;
+		int attempts = 0;
+		List<Map<String, String>> rows = new ArrayList<Map<String, String>>();
+
+		long acquireStart = System.nanoTime();
+		try (Connection con = ds.getConnection(); PreparedStatement stmt = con.prepareStatement(sql)) {
+			long acquireNanos = System.nanoTime() - acquireStart;
+			while (true) {
+				attempts++;
+				rows = readRows(query, stmt, attempts == 1 ? acquireNanos : 0);
+				if (condition.test(rows)) {
+					WaitResult result = new WaitResult(rows, attempts, (System.nanoTime() - start) / 1_000_000);
+					logger.info("Query '{}' converged after {} polls in {} ms", query, attempts, result.getElapsedMillis());
+					return result;
+				}
+				long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+				if (remaining <= 0) {
+					break;
+				}
+				long sleep = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+				Thread.sleep(Math.min(sleep, remaining));
+				delay = Math.min(delay * 2, maxDelay);
+			}
+		} catch (SQLException e) {
+			throw new RuntimeException(String.format("Query '%s' failed while waiting: %s", query, e.getMessage()), e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(String.format("Interrupted while waiting for query '%s'", query), e);
+		}
+		throw new RuntimeException(String.format("Query '%s' did not match within %d ms after %d polls. Last rows: %s",
+				query, timeout.toMillis(), attempts, rows));
+	}
+
+	private static List<Map<String, String>> readRows(String query, PreparedStatement stmt, long acquireNanos)
+			throws SQLException {
+		List<Map<String, String>> rows = new ArrayList<Map<String, String>>();
+		long executeStart = System.nanoTime();
+		try (ResultSet rs = stmt.executeQuery()) {
+			long fetchStart = System.nanoTime();
+			ResultSetMetaData meta = rs.getMetaData();
+			while (rs.next()) {
+				Map<String, String> row = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+				for (int i = 1; i <= meta.getColumnCount(); i++) {
+					row.put(meta.getColumnLabel(i), rs.getString(i));
+				}
+				rows.add(row);
+			}
+			DBQueryMetrics.getInstance().record(query, acquireNanos, fetchStart - executeStart,
+					System.nanoTime() - fetchStart, rows.size());
+		}
+		return rows;
 	}
 
 	public List<String> getListData(String query, String Column) {
@@ -50,17 +267,18 @@ public class MYSQLConnectionManager {
 		Connection con = null;
 		Statement stmt = null;
 		try {
+			long start = System.nanoTime();
 			con = ds.getConnection();
+			long executeStart = System.nanoTime();
 			stmt = con.createStatement();
-			if (UtilProperties.getInstance().getProperty(query) == null) {
-				rs = stmt.executeQuery(query);
-			} else {
-				rs = stmt.executeQuery(UtilProperties.getInstance().getProperty(query));
-			}
+			rs = stmt.executeQuery(resolveQuery(query));
+			long fetchStart = System.nanoTime();
 
 			while (rs.next()) {
 				Result.add((rs.getString(Column)));
 			}
+			DBQueryMetrics.getInstance().record(query, executeStart - start, fetchStart - executeStart,
+					System.nanoTime() - fetchStart, Result.size());
 
 			return Result;
 		} catch (Exception e) {
@@ -87,20 +305,22 @@ public class MYSQLConnectionManager {
 		Statement stmt = null;
 		try {
 			String Json = "{";
+			int rows = 0;
+			long start = System.nanoTime();
 			con = ds.getConnection();
+			long executeStart = System.nanoTime();
 			stmt = con.createStatement();
-			if (UtilProperties.getInstance().getProperty(Query) == null) {
-				rs = stmt.executeQuery(Query);
-			} else {
-				rs = stmt.executeQuery(UtilProperties.getInstance().getProperty(Query));
-			}
+			rs = stmt.executeQuery(resolveQuery(Query));
+			long fetchStart = System.nanoTime();
 			while (rs.next()) {
+				rows++;
 				for (int i = 1; i < rs.getMetaData().getColumnCount(); i++) {
 					Json += "\"" + rs.getMetaData().getColumnName(i) + "\":\"" + rs.getString(i) + "\",";
 				}
 				Json = Json.substring(0, Json.length() - 1) + ",";
 			}
-			con.close();
+			DBQueryMetrics.getInstance().record(Query, executeStart - start, fetchStart - executeStart,
+					System.nanoTime() - fetchStart, rows);
 			Json = Json.substring(0, Json.length() - 1) + "}";
 			JsonParser parser = new JsonParser();
 			JsonObject JsonOBJ = (JsonObject) parser.parse(Json);
@@ -108,6 +328,46 @@ public class MYSQLConnectionManager {
 		} catch (Exception e) {
 			e.printStackTrace();
 			return null;
+		} finally {
+			// Closing the connection returns it to the pool, also when the query failed
+			try {
+				if (rs != null)
+					rs.close();
+				if (stmt != null)
+					stmt.close();
+				if (con != null)
+					con.close();
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Outcome of {@link #waitForQuery}: the rows that satisfied the condition, how
+	 * many polls it took and how long until the data converged.
+	 */
+	public static class WaitResult {
+		private final List<Map<String, String>> rows;
+		private final int attempts;
+		private final long elapsedMillis;
+
+		public WaitResult(List<Map<String, String>> rows, int attempts, long elapsedMillis) {
+			this.rows = rows;
+			this.attempts = attempts;
+			this.elapsedMillis = elapsedMillis;
+		}
+
+		public List<Map<String, String>> getRows() {
+			return rows;
+		}
+
+		public int getAttempts() {
+			return attempts;
+		}
+
+		public long getElapsedMillis() {
+			return elapsedMillis;
 		}
 	}
 
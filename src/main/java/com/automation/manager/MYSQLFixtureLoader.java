@@ -0,0 +1,369 @@
+package com.automation.manager;
+
+import com.automation.Utilities.PathManager;
+import com.automation.utils.UtilProperties;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk loader for database fixtures stored under {@code src/test/resources/testdata}.
+ *
+ * Each fixture file seeds the table named after it ({@code users.csv} loads into
+ * {@code users}). CSV files carry the column names in their header row; JSON files
+ * hold an array of flat objects. Rows are streamed from disk and written through a
+ * single prepared statement using JDBC batching, so with
+ * {@code rewriteBatchedStatements=true} MySQL receives multi-row INSERTs instead of
+ * one round trip per row. Independent tables are loaded in parallel, each on its own
+ * connection.
+ *
+ * Settings (any properties file under Configurations, or -D overrides):
+ * - _FIXTURE_BATCH_SIZE: rows per JDBC batch (default 1000)
+ * - _FIXTURE_LOAD_THREADS: tables loaded concurrently (default 4)
+ */
+public class MYSQLFixtureLoader {
+
+    private static final Logger logger = LogManager.getLogger(MYSQLFixtureLoader.class);
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final int DEFAULT_LOAD_THREADS = 4;
+    private static final String NULL_MARKER = "\\N";
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private final MYSQLConnectionManager connectionManager;
+    private final int batchSize;
+    private final int loadThreads;
+
+    public MYSQLFixtureLoader() {
+        this(MYSQLConnectionManager.getInstance());
+    }
+
+    public MYSQLFixtureLoader(MYSQLConnectionManager connectionManager) {
+        this(connectionManager,
+                UtilProperties.getInstance().getInteger("_FIXTURE_BATCH_SIZE", DEFAULT_BATCH_SIZE),
+                UtilProperties.getInstance().getInteger("_FIXTURE_LOAD_THREADS", DEFAULT_LOAD_THREADS));
+    }
+
+    public MYSQLFixtureLoader(MYSQLConnectionManager connectionManager, int batchSize, int loadThreads) {
+        if (batchSize < 1 || loadThreads < 1) {
+            throw new IllegalArgumentException("Batch size and load threads must be at least 1");
+        }
+        this.connectionManager = connectionManager;
+        this.batchSize = batchSize;
+        this.loadThreads = loadThreads;
+    }
+
+    /**
+     * Loads every CSV and JSON file found in the test data directory.
+     * @return load statistics keyed by table name
+     */
+    public Map<String, LoadResult> loadAll() {
+        File[] files = new File(PathManager.getTestDataDirectory()).listFiles(
+                (dir, name) -> name.endsWith(".csv") || name.endsWith(".json"));
+        if (files == null || files.length == 0) {
+            logger.info("No fixture files found in {}", PathManager.getTestDataDirectory());
+            return Collections.emptyMap();
+        }
+        Arrays.sort(files);
+        List<String> names = new ArrayList<>();
+        for (File file : files) {
+            names.add(file.getName());
+        }
+        return load(names.toArray(new String[0]));
+    }
+
+    /**
+     * Loads the given fixture files, running independent tables in parallel.
+     * @param fileNames fixture file names relative to the test data directory
+     * @return load statistics keyed by table name, in the order given
+     * @throws RuntimeException if any table fails to load
+     */
+    public Map<String, LoadResult> load(String... fileNames) {
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(loadThreads, Math.max(1, fileNames.length)));
+        Map<String, Future<LoadResult>> pending = new LinkedHashMap<>();
+        try {
+            for (String fileName : fileNames) {
+                pending.put(fileName, executor.submit(() -> loadFile(fileName)));
+            }
+            Map<String, LoadResult> results = new LinkedHashMap<>();
+            long totalRows = 0;
+            for (Map.Entry<String, Future<LoadResult>> entry : pending.entrySet()) {
+                LoadResult result = await(entry.getKey(), entry.getValue());
+                results.put(result.getTable(), result);
+                totalRows += result.getRows();
+            }
+            long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            logger.info("Loaded {} fixture rows into {} tables in {} ms ({} rows/sec)",
+                    totalRows, results.size(), elapsedMillis, totalRows * 1000 / elapsedMillis);
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Streams a single fixture file into its table.
+     * @param fileName fixture file name relative to the test data directory
+     * @return load statistics for the table
+     * @throws RuntimeException if the file cannot be read or the insert fails
+     */
+    public LoadResult loadFile(String fileName) {
+        File file = new File(PathManager.getTestDataPath(fileName));
+        String table = identifier(fileName.substring(0, fileName.lastIndexOf('.') < 0 ? fileName.length() : fileName.lastIndexOf('.')));
+        long start = System.nanoTime();
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8);
+             Connection con = connectionManager.getConnection()) {
+            con.setAutoCommit(false);
+            long rows = fileName.endsWith(".json")
+                    ? loadJson(con, table, new JsonReader(reader))
+                    : loadCsv(con, table, reader);
+            LoadResult result = new LoadResult(table, rows, (System.nanoTime() - start) / 1_000_000);
+            logger.info("Loaded {} rows into {} in {} ms ({} rows/sec)",
+                    result.getRows(), table, result.getMillis(), result.getRowsPerSecond());
+            return result;
+        } catch (IOException | SQLException e) {
+            throw new RuntimeException(
+                    String.format("Failed to load fixture '%s' into table '%s': %s", fileName, table, e.getMessage()), e);
+        }
+    }
+
+    private long loadCsv(Connection con, String table, BufferedReader reader) throws IOException, SQLException {
+        List<String> header = readCsvRecord(reader);
+        if (header == null) {
+            return 0;
+        }
+        try (PreparedStatement insert = con.prepareStatement(insertSql(table, header))) {
+            long rows = 0;
+            List<String> record;
+            while ((record = readCsvRecord(reader)) != null) {
+                if (record.size() == 1 && record.get(0).isEmpty()) {
+                    continue;
+                }
+                if (record.size() != header.size()) {
+                    throw new IOException(String.format("Row %d of %s has %d values, expected %d",
+                            rows + 2, table, record.size(), header.size()));
+                }
+                for (int i = 0; i < record.size(); i++) {
+                    String value = record.get(i);
+                    if (NULL_MARKER.equals(value)) {
+                        insert.setNull(i + 1, Types.VARCHAR);
+                    } else {
+                        insert.setString(i + 1, value);
+                    }
+                }
+                rows = addToBatch(con, insert, rows);
+            }
+            flush(con, insert, rows);
+            return rows;
+        }
+    }
+
+    private long loadJson(Connection con, String table, JsonReader reader) throws IOException, SQLException {
+        reader.beginArray();
+        PreparedStatement insert = null;
+        List<String> columns = null;
+        long rows = 0;
+        try {
+            while (reader.hasNext()) {
+                Map<String, Object> row = readJsonRow(reader);
+                if (insert == null) {
+                    columns = new ArrayList<>(row.keySet());
+                    insert = con.prepareStatement(insertSql(table, columns));
+                }
+                for (int i = 0; i < columns.size(); i++) {
+                    Object value = row.get(columns.get(i));
+                    if (value == null) {
+                        insert.setNull(i + 1, Types.VARCHAR);
+                    } else if (value instanceof Boolean) {
+                        insert.setBoolean(i + 1, (Boolean) value);
+                    } else {
+                        insert.setString(i + 1, value.toString());
+                    }
+                }
+                rows = addToBatch(con, insert, rows);
+            }
+            reader.endArray();
+            if (insert != null) {
+                flush(con, insert, rows);
+            }
+            return rows;
+        } finally {
+            if (insert != null) {
+                insert.close();
+            }
+        }
+    }
+
+    private Map<String, Object> readJsonRow(JsonReader reader) throws IOException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            JsonToken token = reader.peek();
+            if (token == JsonToken.NULL) {
+                reader.nextNull();
+                row.put(name, null);
+            } else if (token == JsonToken.BOOLEAN) {
+                row.put(name, reader.nextBoolean());
+            } else if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+                row.put(name, reader.nextString());
+            } else {
+                throw new IOException(String.format("Nested value for '%s' is not supported in fixture rows", name));
+            }
+        }
+        reader.endObject();
+        return row;
+    }
+
+    private long addToBatch(Connection con, PreparedStatement insert, long rows) throws SQLException {
+        insert.addBatch();
+        rows++;
+        if (rows % batchSize == 0) {
+            insert.executeBatch();
+            con.commit();
+        }
+        return rows;
+    }
+
+    private void flush(Connection con, PreparedStatement insert, long rows) throws SQLException {
+        if (rows % batchSize != 0) {
+            insert.executeBatch();
+        }
+        con.commit();
+    }
+
+    private static String insertSql(String table, List<String> columns) {
+        StringBuilder names = new StringBuilder();
+        StringBuilder params = new StringBuilder();
+        for (String column : columns) {
+            if (names.length() > 0) {
+                names.append(", ");
+                params.append(", ");
+            }
+            names.append(identifier(column.trim()));
+            params.append('?');
+        }
+        return String.format("INSERT INTO %s (%s) VALUES (%s)", table, names, params);
+    }
+
+    private static String identifier(String name) {
+        if (!IDENTIFIER.matcher(name).matches()) {
+            throw new IllegalArgumentException(String.format("Invalid table or column name in fixture: '%s'", name));
+        }
+        return name;
+    }
+
+    /**
+     * Reads one RFC 4180 style record. Quoted fields may contain commas, doubled
+     * quotes and line breaks.
+     * @return the field values, or null at end of input
+     */
+    static List<String> readCsvRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (!quoted) {
+                break;
+            }
+            line = reader.readLine();
+            if (line == null) {
+                throw new IOException("Unterminated quoted field in CSV fixture");
+            }
+            field.append('\n');
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static LoadResult await(String fileName, Future<LoadResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while loading fixture " + fileName, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException
+                    ? (RuntimeException) cause
+                    : new RuntimeException("Failed to load fixture " + fileName, cause);
+        }
+    }
+
+    /**
+     * Row count and timing for one loaded table.
+     */
+    public static class LoadResult {
+        private final String table;
+        private final long rows;
+        private final long millis;
+
+        public LoadResult(String table, long rows, long millis) {
+            this.table = table;
+            this.rows = rows;
+            this.millis = millis;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public long getRowsPerSecond() {
+            return rows * 1000 / Math.max(1, millis);
+        }
+    }
+}
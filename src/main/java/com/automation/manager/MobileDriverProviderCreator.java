@@ -16,13 +16,17 @@ import org.openqa.selenium.Platform;
 import org.openqa.selenium.remote.DesiredCapabilities;
 
 import com.automation.utils.JsonMap;
+import com.automation.utils.Scoped;
 import com.automation.utils.UtilProperties;
 
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.ios.IOSDriver;
 
-
+/**
+ * Lives for the suite: the capabilities are read from caps.json once.
+ */
+@Scoped(Scoped.Lifetime.SUITE)
 public class MobileDriverProviderCreator{
 	@SuppressWarnings("rawtypes")
 	private static  Hashtable<String, AppiumDriver> drivers = new Hashtable<String, AppiumDriver>();
@@ -31,7 +35,7 @@ public class MobileDriverProviderCreator{
 	public static  Hashtable<String, String> sessions = new Hashtable<String, String>();
 	public static  ArrayList<String> appiumPortsList = new ArrayList<>();
 	public static  ArrayList<String> udid = new ArrayList<>();
-	private  DesiredCapabilities androidCapabilities = new DesiredCapabilities(JsonMap.GetCaps());
+	private final DesiredCapabilities androidCapabilities = new DesiredCapabilities(JsonMap.GetCaps());
 
 
 	public enum platform {
@@ -144,7 +148,8 @@ public class MobileDriverProviderCreator{
 //			capabilities.setCapability("autoAcceptAlerts", "true");
 //			capabilities.setCapability("autoGrantPermissions", "true");
 //			capabilities.setCapability("noResetValue","false");
-			capabilities = androidCapabilities;
+			// Copied per driver: the suite-wide capabilities are shared by the threads of all scenarios
+			capabilities = new DesiredCapabilities(androidCapabilities);
 			capabilities.setCapability("udid",currentServer.deviceUUID);
 		} else {
 			capabilities.setPlatform(Platform.IOS);
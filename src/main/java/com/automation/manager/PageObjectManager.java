@@ -8,6 +8,7 @@ package com.automation.manager;
 import com.automation.Pages.BasePage;
 import com.automation.Pages.HomePage;
 import com.automation.Pages.Login_Page;
+import com.automation.Pages.Products_Page;
 import org.openqa.selenium.WebDriver;
 
 import java.util.HashMap;
@@ -45,6 +46,14 @@ public class PageObjectManager {
         return getPage(Login_Page.class);
     }
 
+    /**
+     * Gets the ProductsPage instance, creating it if necessary
+     * @return ProductsPage instance
+     */
+    public Products_Page getProductsPage() {
+        return getPage(Products_Page.class);
+    }
+
     /**
      * Gets the BasePage instance, creating it if necessary
      * @return BasePage instance
@@ -0,0 +1,76 @@
+package com.automation.utils;
+
+/**
+ * Thread-bound view of what the current test thread is executing.
+ *
+ * The runner publishes the scenario and step being run (see
+ * com.automation.run.ScenarioTracker), so framework code that has no access to
+ * Cucumber objects, such as the database layer, can tag its measurements with
+ * the scenario and step they belong to.
+ */
+public final class ExecutionContext {
+
+    private static final ThreadLocal<ExecutionContext> CURRENT = new ThreadLocal<>();
+
+    private final String scenarioId;
+    private final String scenarioName;
+    private volatile int stepIndex = -1;
+    private volatile String stepText;
+
+    private ExecutionContext(String scenarioId, String scenarioName) {
+        this.scenarioId = scenarioId;
+        this.scenarioName = scenarioName;
+    }
+
+    /**
+     * Marks the start of a scenario on the current thread.
+     * @param scenarioId stable scenario id in the form {@code uri:line}
+     * @param scenarioName scenario name as written in the feature file
+     */
+    public static void startScenario(String scenarioId, String scenarioName) {
+        CURRENT.set(new ExecutionContext(scenarioId, scenarioName));
+    }
+
+    /**
+     * Marks the start of a Gherkin step of the current scenario.
+     * @param index zero-based position of the step in the scenario
+     * @param text step text without keyword
+     */
+    public static void startStep(int index, String text) {
+        ExecutionContext context = CURRENT.get();
+        if (context != null) {
+            context.stepIndex = index;
+            context.stepText = text;
+        }
+    }
+
+    public static void finishScenario() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the id of the running scenario, or null outside a scenario
+     */
+    public static String getScenarioId() {
+        ExecutionContext context = CURRENT.get();
+        return context == null ? null : context.scenarioId;
+    }
+
+    public static String getScenarioName() {
+        ExecutionContext context = CURRENT.get();
+        return context == null ? null : context.scenarioName;
+    }
+
+    /**
+     * @return zero-based index of the running step, or -1 before the first step
+     */
+    public static int getStepIndex() {
+        ExecutionContext context = CURRENT.get();
+        return context == null ? -1 : context.stepIndex;
+    }
+
+    public static String getStepText() {
+        ExecutionContext context = CURRENT.get();
+        return context == null ? null : context.stepText;
+    }
+}
@@ -31,7 +31,7 @@ public class JsonMap {
 			Map<String, Object> map = new HashMap<String, Object>();
 
 			// convert JSON string to Map
-			map = mapper.readValue(jsonfile, new TypeReference<Map<String, String>>() {
+			map = mapper.readValue(jsonfile, new TypeReference<Map<String, Object>>() {
 			});
 
 			return map;
@@ -0,0 +1,30 @@
+package com.automation.utils;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares how long the Cucumber object factory keeps an instance of the class.
+ *
+ * Classes without it live for one scenario, like the step definition classes.
+ * Longer-lived classes must not keep per-scenario state, may only depend on
+ * classes that live at least as long and, for SUITE, must be thread-safe, as
+ * parallel scenarios share them.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Scoped {
+
+    Lifetime value();
+
+    enum Lifetime {
+        /** One instance for the whole run, shared by all threads */
+        SUITE,
+        /** One instance per feature file and thread */
+        FEATURE,
+        /** A new instance for every scenario */
+        SCENARIO
+    }
+}
@@ -90,4 +90,38 @@ public class UtilProperties {
 		return Integer.parseInt(getProperty(key));
 	}
 
+	/**
+	 * Gets a property value, letting a JVM system property of the same name
+	 * (e.g. -D_FIXTURE_BATCH_SIZE=500) override the configuration files.
+	 *
+	 * @param key          property name
+	 * @param defaultValue value returned when the property is missing or blank
+	 * @return the trimmed property value or the default
+	 */
+	public String getProperty(String key, String defaultValue) {
+		String val = System.getProperty(key);
+		if (val == null) {
+			val = getProperty(key);
+		}
+		return (val == null || val.trim().isEmpty()) ? defaultValue : val.trim();
+	}
+
+	public int getInteger(String key, int defaultValue) {
+		String val = getProperty(key, null);
+		try {
+			return val == null ? defaultValue : Integer.parseInt(val);
+		} catch (NumberFormatException e) {
+			throw new RuntimeException(String.format("Invalid integer value for '%s': '%s'", key, val));
+		}
+	}
+
+	public long getLong(String key, long defaultValue) {
+		String val = getProperty(key, null);
+		try {
+			return val == null ? defaultValue : Long.parseLong(val);
+		} catch (NumberFormatException e) {
+			throw new RuntimeException(String.format("Invalid numeric value for '%s': '%s'", key, val));
+		}
+	}
+
 }
@@ -0,0 +1,216 @@
+package com.automation.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.automation.utils.ExecutionContext;
+import com.automation.utils.UtilProperties;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+
+import io.cucumber.java.Scenario;
+import io.restassured.RestAssured;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.http.Header;
+import io.restassured.response.Response;
+import io.restassured.specification.QueryableRequestSpecification;
+import io.restassured.specification.RequestSpecification;
+import io.restassured.specification.SpecificationQuerier;
+
+/**
+ * Scenario-scoped REST client used by the API step definitions.
+ *
+ * PicoContainer creates one instance per scenario and injects it into every
+ * step class that asks for it, so each scenario owns its request
+ * specification, last response and auth token. Nothing here touches the
+ * global RestAssured settings (such as RestAssured.baseURI), which is what
+ * allows @API scenarios to run on parallel threads. Connections, on the other
+ * hand, are shared: every request borrows from {@link ApiConnectionPool}.
+ * The base URL comes from api.base.url, or from {@link ApiMockServer} when
+ * recording or replaying.
+ */
+public class ApiClient {
+
+    private static final int DEFAULT_FAN_OUT_PARALLELISM = 8;
+    private static ExecutorService fanOutExecutor;
+
+    private final RequestSpecification spec;
+    private ApiResponse response;
+    private String token;
+    private Scenario cacheScenario;
+
+    public ApiClient() {
+        this.spec = new RequestSpecBuilder()
+                .setBaseUri(ApiMockServer.resolveBaseUrl())
+                .addHeader("Content-Type", "application/json")
+                .addFilter(new JournalFilter())
+                .setConfig(RestAssuredConfig.config()
+                        .httpClient(ApiConnectionPool.getInstance().httpClientConfig()))
+                .build();
+    }
+
+    /**
+     * Sends a GET request relative to the base URL and keeps the response.
+     * @param path path or query string appended to the base URL
+     * @param schemaId schema a successful response must match, or null
+     * @return the response
+     */
+    public ApiResponse get(String path, String schemaId) {
+        ApiRequest request = ApiRequest.get(path).withSchema(schemaId);
+        if (cacheScenario == null) {
+            response = send(request);
+            return response;
+        }
+        AtomicBoolean fetched = new AtomicBoolean();
+        ApiResponse cached = ResponseCache.getInstance().get(cacheKey("GET", path, schemaId), () -> {
+            fetched.set(true);
+            return send(request);
+        });
+        response = cached;
+        if (!fetched.get()) {
+            cacheScenario.log(String.format("Step '%s': GET %s served from the response cache",
+                    ExecutionContext.getStepText(), path));
+        }
+        return cached;
+    }
+
+    /**
+     * Sends a POST request with a JSON body to the base URL and keeps the response.
+     * @param body request body
+     * @param schemaId schema a successful response must match, or null
+     * @return the response
+     */
+    public ApiResponse post(String body, String schemaId) {
+        response = send(ApiRequest.post(body).withSchema(schemaId));
+        return response;
+    }
+
+    /**
+     * Sends independent requests concurrently on the shared connection pool and
+     * waits for all of them. At most api.fanout.parallelism requests are in
+     * flight at once, across all scenarios. Failed requests do not stop the
+     * others; their error is kept in the result. The last response of the
+     * scenario is left unchanged.
+     * @param requests requests to send
+     * @return one result per request, in submission order
+     */
+    public List<ApiResult> sendAll(List<ApiRequest> requests) {
+        // Carry the scenario over to the pool threads so journal and metrics attribute the requests
+        String scenarioId = ExecutionContext.getScenarioId();
+        String scenarioName = ExecutionContext.getScenarioName();
+        int stepIndex = ExecutionContext.getStepIndex();
+        String stepText = ExecutionContext.getStepText();
+
+        List<CompletableFuture<ApiResult>> futures = new ArrayList<>();
+        for (ApiRequest request : requests) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                if (scenarioId != null) {
+                    ExecutionContext.startScenario(scenarioId, scenarioName);
+                    ExecutionContext.startStep(stepIndex, stepText);
+                }
+                long start = System.nanoTime();
+                try {
+                    ApiResponse result = send(request);
+                    return new ApiResult(request, result, null, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                } catch (RuntimeException | Error e) {
+                    return new ApiResult(request, null, e, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                } finally {
+                    ExecutionContext.finishScenario();
+                }
+            }, fanOutExecutor()));
+        }
+        List<ApiResult> results = new ArrayList<>();
+        for (CompletableFuture<ApiResult> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    /**
+     * @return the response of the last request sent by this scenario
+     * @throws IllegalStateException if no request has been sent yet
+     */
+    public ApiResponse getResponse() {
+        if (response == null) {
+            throw new IllegalStateException("No API request has been sent in this scenario");
+        }
+        return response;
+    }
+
+    /**
+     * Lets GET requests of this scenario reuse responses fetched earlier in the
+     * run by other scenarios. Called for scenarios tagged @cacheable, which
+     * must not depend on side effects of their GET requests.
+     * @param scenario scenario that cache hits are logged to
+     */
+    public void enableResponseCache(Scenario scenario) {
+        this.cacheScenario = scenario;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    /**
+     * Sends one request without touching the scenario's last response.
+     * The body is read straight away so the connection goes back to the pool;
+     * RestAssured otherwise holds it until the body is first accessed.
+     * Successful responses are then checked against the schema the request
+     * names, if any; this is the only place responses are validated.
+     */
+    private ApiResponse send(ApiRequest request) {
+        String method = request.getMethod();
+        Response raw = method.equals("post")
+                ? request().body(request.getBody()).post(request.getPath())
+                : request().get(request.getPath());
+        raw.asByteArray();
+        ApiResponse apiResponse = new ApiResponse(raw, request.getSchemaId());
+
+        if (apiResponse.getSchemaId() != null && raw.getStatusCode() / 100 == 2) {
+            ProcessingReport report = apiResponse.validateSchema();
+            if (!report.isSuccess()) {
+                throw new AssertionError(String.format("%s response does not match schema '%s':%n%s",
+                        request, apiResponse.getSchemaId(), report));
+            }
+        }
+        return apiResponse;
+    }
+
+    private static synchronized ExecutorService fanOutExecutor() {
+        if (fanOutExecutor == null) {
+            int parallelism = UtilProperties.getInstance().getInteger("api.fanout.parallelism", DEFAULT_FAN_OUT_PARALLELISM);
+            AtomicInteger threadIndex = new AtomicInteger();
+            fanOutExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+                Thread thread = new Thread(runnable, "api-fanout-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return fanOutExecutor;
+    }
+
+    private String cacheKey(String method, String path, String schemaId) {
+        QueryableRequestSpecification query = SpecificationQuerier.query(spec);
+        List<String> headers = new ArrayList<>();
+        for (Header header : query.getHeaders()) {
+            headers.add(header.getName().toLowerCase() + "=" + header.getValue());
+        }
+        Collections.sort(headers);
+        return method + " " + query.getBaseUri() + path + " " + headers + " auth=" + token + " schema=" + schemaId;
+    }
+
+    private RequestSpecification request() {
+        return RestAssured.given().spec(spec);
+    }
+}
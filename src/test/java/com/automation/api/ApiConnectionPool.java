@@ -0,0 +1,172 @@
+package com.automation.api;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.pool.PoolStats;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.automation.utils.UtilProperties;
+
+import io.restassured.config.HttpClientConfig;
+
+/**
+ * Keep-alive connection pool shared by every {@link ApiClient}.
+ *
+ * RestAssured builds a new HttpClient for each request and shuts its connection
+ * manager down afterwards, so by default every request pays for a fresh TCP and
+ * TLS handshake. Here every client is handed a view of one pooling manager whose
+ * shutdown is a no-op, so connections go back to the pool instead. The pool is
+ * only closed by {@link #shutdown()} at the end of a suite.
+ *
+ * Settings (API.properties or -D on the command line):
+ * api.http.maxTotal, api.http.maxPerRoute, api.http.connectTimeoutMs,
+ * api.http.readTimeoutMs, api.http.keepAliveMs and api.http.idleTimeoutMs.
+ *
+ * RestAssured 5 only accepts HttpClient 4's AbstractHttpClient, so the pool is
+ * built from HttpClient's deprecated classic API. Those types are written out
+ * in full rather than imported, so the deprecation warnings can be suppressed
+ * where they are used.
+ */
+public class ApiConnectionPool {
+
+    private static final Logger logger = LogManager.getLogger(ApiConnectionPool.class);
+
+    private static ApiConnectionPool instance;
+
+    @SuppressWarnings("deprecation")
+    private final org.apache.http.impl.conn.PoolingClientConnectionManager pool;
+    @SuppressWarnings("deprecation")
+    private final org.apache.http.conn.ClientConnectionManager sharedView;
+    private final ScheduledExecutorService evictor;
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+    private final long keepAliveMs;
+
+    @SuppressWarnings("deprecation")
+    private ApiConnectionPool() {
+        UtilProperties properties = UtilProperties.getInstance();
+        connectTimeoutMs = properties.getInteger("api.http.connectTimeoutMs", 10000);
+        readTimeoutMs = properties.getInteger("api.http.readTimeoutMs", 30000);
+        keepAliveMs = properties.getLong("api.http.keepAliveMs", 30000);
+        long idleTimeoutMs = properties.getLong("api.http.idleTimeoutMs", 60000);
+
+        pool = new org.apache.http.impl.conn.PoolingClientConnectionManager();
+        pool.setMaxTotal(properties.getInteger("api.http.maxTotal", 50));
+        pool.setDefaultMaxPerRoute(properties.getInteger("api.http.maxPerRoute", 20));
+        sharedView = new SharedConnectionManager(pool);
+
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "api-connection-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, idleTimeoutMs / 2);
+        evictor.scheduleAtFixedRate(() -> {
+            pool.closeExpiredConnections();
+            pool.closeIdleConnections(idleTimeoutMs, TimeUnit.MILLISECONDS);
+        }, period, period, TimeUnit.MILLISECONDS);
+
+        logger.info("API connection pool: max {} total / {} per route, connect {} ms, read {} ms, keep-alive {} ms",
+                pool.getMaxTotal(), pool.getDefaultMaxPerRoute(), connectTimeoutMs, readTimeoutMs, keepAliveMs);
+    }
+
+    public static synchronized ApiConnectionPool getInstance() {
+        if (instance == null) {
+            instance = new ApiConnectionPool();
+        }
+        return instance;
+    }
+
+    /**
+     * @return a RestAssured client config whose clients borrow from this pool
+     */
+    public HttpClientConfig httpClientConfig() {
+        return HttpClientConfig.httpClientConfig().httpClientFactory(this::createHttpClient);
+    }
+
+    /**
+     * @return leased, pending and available connections across all routes
+     */
+    public PoolStats getStats() {
+        return pool.getTotalStats();
+    }
+
+    /**
+     * Closes every pooled connection and stops the idle evictor. Requests
+     * already handed a client of this pool fail afterwards; a later
+     * {@link #getInstance()} opens a new pool (e.g. for the quarantine suite,
+     * which runs after the main one).
+     */
+    public void shutdown() {
+        synchronized (ApiConnectionPool.class) {
+            if (instance == this) {
+                instance = null;
+            }
+        }
+        logger.info("Shutting down API connection pool ({})", getStats());
+        evictor.shutdownNow();
+        pool.shutdown();
+    }
+
+    @SuppressWarnings("deprecation")
+    private org.apache.http.impl.client.DefaultHttpClient createHttpClient() {
+        org.apache.http.impl.client.DefaultHttpClient client = new org.apache.http.impl.client.DefaultHttpClient(sharedView);
+        org.apache.http.params.HttpConnectionParams.setConnectionTimeout(client.getParams(), connectTimeoutMs);
+        org.apache.http.params.HttpConnectionParams.setSoTimeout(client.getParams(), readTimeoutMs);
+        client.setKeepAliveStrategy((response, context) -> {
+            // Honour a shorter Keep-Alive header from the server, otherwise cap at the configured value
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAliveMs) : keepAliveMs;
+        });
+        return client;
+    }
+
+    /**
+     * Delegates to the shared pool but ignores shutdown, which RestAssured calls
+     * after every request.
+     */
+    @SuppressWarnings("deprecation")
+    private static class SharedConnectionManager implements org.apache.http.conn.ClientConnectionManager {
+
+        private final org.apache.http.conn.ClientConnectionManager delegate;
+
+        SharedConnectionManager(org.apache.http.conn.ClientConnectionManager delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public org.apache.http.conn.scheme.SchemeRegistry getSchemeRegistry() {
+            return delegate.getSchemeRegistry();
+        }
+
+        @Override
+        public org.apache.http.conn.ClientConnectionRequest requestConnection(HttpRoute route, Object state) {
+            return delegate.requestConnection(route, state);
+        }
+
+        @Override
+        public void releaseConnection(org.apache.http.conn.ManagedClientConnection connection, long validDuration, TimeUnit timeUnit) {
+            delegate.releaseConnection(connection, validDuration, timeUnit);
+        }
+
+        @Override
+        public void closeIdleConnections(long idleTime, TimeUnit timeUnit) {
+            delegate.closeIdleConnections(idleTime, timeUnit);
+        }
+
+        @Override
+        public void closeExpiredConnections() {
+            delegate.closeExpiredConnections();
+        }
+
+        @Override
+        public void shutdown() {
+            // The pool outlives individual requests; see ApiConnectionPool.shutdown()
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.automation.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.automation.Utilities.PathManager;
+import com.automation.utils.UtilProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local HTTP server that records and replays the API the suite talks to.
+ *
+ * The mode comes from api.mode (API.properties or -Dapi.mode=...):
+ * <ul>
+ *     <li>live - no server; requests go straight to api.base.url (default)</li>
+ *     <li>record - requests are proxied to api.base.url and every
+ *     request/response pair is saved to api.recordings when the suite ends</li>
+ *     <li>replay - responses are served from api.recordings on loopback, so
+ *     the suite runs offline</li>
+ * </ul>
+ * Exchanges are matched on method, path, query string and request body.
+ */
+public class ApiMockServer {
+
+    private static final Logger logger = LogManager.getLogger(ApiMockServer.class);
+
+    public static final String DEFAULT_BASE_URL = "https://reqres.in/api/users";
+    private static final String DEFAULT_RECORDINGS = "recordings/api-recordings.json";
+
+    private static ApiMockServer instance;
+
+    private final String mode;
+    private final URI upstream;
+    private final File recordingsFile;
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final Map<String, Recording> recordings = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    private final HttpServer server;
+
+    private ApiMockServer(String mode) {
+        UtilProperties properties = UtilProperties.getInstance();
+        this.mode = mode;
+        this.upstream = URI.create(properties.getProperty("api.base.url", DEFAULT_BASE_URL));
+        this.recordingsFile = new File(PathManager.getTestResourcePath(
+                properties.getProperty("api.recordings", DEFAULT_RECORDINGS)));
+        loadRecordings();
+
+        // Without TCP_NODELAY the separately written headers and body hit Nagle's
+        // algorithm plus delayed ACKs, adding ~40 ms to every replayed response
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not start the API mock server", e);
+        }
+        executor = Executors.newFixedThreadPool(Math.max(2, properties.getInteger("api.mock.threads", 4)), runnable -> {
+            Thread thread = new Thread(runnable, "api-mock-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        logger.info("API mock server in {} mode on {} ({} recordings from {})",
+                mode, getBaseUrl(), recordings.size(), recordingsFile);
+    }
+
+    /**
+     * @return the configured mode: live, record or replay
+     */
+    public static String getMode() {
+        String mode = UtilProperties.getInstance().getProperty("api.mode", "live").toLowerCase();
+        if (!mode.equals("live") && !mode.equals("record") && !mode.equals("replay")) {
+            throw new RuntimeException(String.format("Unknown api.mode '%s', expected live, record or replay", mode));
+        }
+        return mode;
+    }
+
+    /**
+     * Base URL API requests should be sent to: the mock server in record and
+     * replay mode, api.base.url otherwise.
+     */
+    public static String resolveBaseUrl() {
+        if (getMode().equals("live")) {
+            return UtilProperties.getInstance().getProperty("api.base.url", DEFAULT_BASE_URL);
+        }
+        return getInstance().getBaseUrl();
+    }
+
+    /**
+     * @return the running server, starting it on first use
+     */
+    public static synchronized ApiMockServer getInstance() {
+        if (instance == null) {
+            instance = new ApiMockServer(getMode());
+        }
+        return instance;
+    }
+
+    /**
+     * Stops the server if it was started, saving new recordings in record mode.
+     */
+    public static synchronized void stop() {
+        if (instance != null) {
+            instance.server.stop(0);
+            instance.executor.shutdownNow();
+            if (instance.mode.equals("record")) {
+                instance.saveRecordings();
+            }
+            instance = null;
+        }
+    }
+
+    /**
+     * @return the upstream base URL rewritten to point at this server
+     */
+    public String getBaseUrl() {
+        return String.format("http://%s:%d%s", server.getAddress().getHostString(), server.getAddress().getPort(),
+                upstream.getRawPath() == null ? "" : upstream.getRawPath());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String pathAndQuery = exchange.getRequestURI().getRawPath()
+                    + (exchange.getRequestURI().getRawQuery() == null ? "" : "?" + exchange.getRequestURI().getRawQuery());
+            String requestBody = new String(readAll(exchange.getRequestBody()), StandardCharsets.UTF_8);
+            String key = key(method, pathAndQuery, requestBody);
+
+            Recording recording = recordings.get(key);
+            if (recording == null && mode.equals("record")) {
+                recording = forward(exchange, method, pathAndQuery, requestBody);
+                recordings.put(key, recording);
+            }
+            if (recording == null) {
+                logger.warn("No recording for {} {}", method, pathAndQuery);
+                respond(exchange, 404, "text/plain", "No recording for " + method + " " + pathAndQuery);
+                return;
+            }
+            respond(exchange, recording.getStatus(), recording.getContentType(), recording.getResponseBody());
+        } catch (Exception e) {
+            logger.error("API mock server failed to handle {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            respond(exchange, 502, "text/plain", String.valueOf(e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Recording forward(HttpExchange exchange, String method, String pathAndQuery, String requestBody)
+            throws IOException {
+        URL target = new URL(upstream.getScheme() + "://" + upstream.getRawAuthority() + pathAndQuery);
+        HttpURLConnection connection = (HttpURLConnection) target.openConnection();
+        connection.setRequestMethod(method);
+        for (Map.Entry<String, List<String>> header : exchange.getRequestHeaders().entrySet()) {
+            String name = header.getKey();
+            if (!name.equalsIgnoreCase("Host") && !name.equalsIgnoreCase("Content-Length")
+                    && !name.equalsIgnoreCase("Connection")) {
+                for (String value : header.getValue()) {
+                    connection.addRequestProperty(name, value);
+                }
+            }
+        }
+        if (!requestBody.isEmpty()) {
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(requestBody.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        int status = connection.getResponseCode();
+        InputStream body = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        Recording recording = new Recording();
+        recording.setMethod(method);
+        recording.setPath(pathAndQuery);
+        recording.setRequestBody(requestBody);
+        recording.setStatus(status);
+        recording.setContentType(connection.getContentType());
+        recording.setResponseBody(body == null ? "" : new String(readAll(body), StandardCharsets.UTF_8));
+        logger.info("Recorded {} {} -> {}", method, pathAndQuery, status);
+        return recording;
+    }
+
+    private void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+        Headers headers = exchange.getResponseHeaders();
+        if (contentType != null) {
+            headers.set("Content-Type", contentType);
+        }
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private void loadRecordings() {
+        if (!recordingsFile.isFile()) {
+            return;
+        }
+        try {
+            List<Recording> saved = mapper.readValue(recordingsFile, new TypeReference<List<Recording>>() {
+            });
+            for (Recording recording : saved) {
+                recordings.put(key(recording.getMethod(), recording.getPath(), recording.getRequestBody()), recording);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not read API recordings from %s", recordingsFile), e);
+        }
+    }
+
+    private void saveRecordings() {
+        // Sorted by key so re-recording produces a readable diff
+        List<Recording> sorted = new ArrayList<>(new TreeMap<>(recordings).values());
+        try {
+            PathManager.ensureDirectoryExists(recordingsFile.getParent());
+            mapper.writeValue(recordingsFile, sorted);
+            logger.info("Saved {} API recordings to {}", sorted.size(), recordingsFile);
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not write API recordings to %s", recordingsFile), e);
+        }
+    }
+
+    private static String key(String method, String pathAndQuery, String requestBody) {
+        return method.toUpperCase() + " " + pathAndQuery + " " + (requestBody == null ? "" : requestBody.trim());
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * One recorded request/response pair, as stored in the recordings file.
+     */
+    public static class Recording {
+        private String method;
+        private String path;
+        private String requestBody;
+        private int status;
+        private String contentType;
+        private String responseBody;
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public String getRequestBody() {
+            return requestBody;
+        }
+
+        public void setRequestBody(String requestBody) {
+            this.requestBody = requestBody;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public void setStatus(int status) {
+            this.status = status;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public void setContentType(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getResponseBody() {
+            return responseBody;
+        }
+
+        public void setResponseBody(String responseBody) {
+            this.responseBody = responseBody;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.automation.api;
+
+/**
+ * One request sent by {@link ApiClient}, alone or in a batch with
+ * {@link ApiClient#sendAll}.
+ */
+public class ApiRequest {
+
+    private final String method;
+    private final String path;
+    private final String body;
+    private final String schemaId;
+
+    private ApiRequest(String method, String path, String body, String schemaId) {
+        this.method = method;
+        this.path = path;
+        this.body = body;
+        this.schemaId = schemaId;
+    }
+
+    /**
+     * @param path path or query string appended to the base URL
+     */
+    public static ApiRequest get(String path) {
+        return new ApiRequest("get", path, null, null);
+    }
+
+    /**
+     * @param body JSON request body, posted to the base URL
+     */
+    public static ApiRequest post(String body) {
+        return new ApiRequest("post", "", body, null);
+    }
+
+    /**
+     * @param schemaId id of the schema in {@link SchemaRegistry} that a successful
+     *                 response must match, or null to skip validation
+     * @return the same request, validated against the schema
+     */
+    public ApiRequest withSchema(String schemaId) {
+        return new ApiRequest(method, path, body, schemaId);
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public String getSchemaId() {
+        return schemaId;
+    }
+
+    @Override
+    public String toString() {
+        return method.toUpperCase() + (path.isEmpty() ? "" : " " + path) + (body == null ? "" : " " + body);
+    }
+}
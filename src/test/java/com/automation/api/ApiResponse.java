@@ -0,0 +1,116 @@
+package com.automation.api;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+
+import io.restassured.response.Response;
+
+/**
+ * Response of an API request, with the body parsed at most once.
+ *
+ * The first lookup parses the body into a Jackson tree; every later assertion
+ * on the same response walks that tree through a path from
+ * {@link JsonPathCache} instead of re-parsing the text.
+ */
+public class ApiResponse {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final Response response;
+    private final String schemaId;
+    // Volatile because @cacheable responses are shared between scenario threads
+    private volatile JsonNode json;
+    private volatile ProcessingReport schemaReport;
+
+    public ApiResponse(Response response) {
+        this(response, null);
+    }
+
+    /**
+     * @param response RestAssured response
+     * @param schemaId id of the schema in {@link SchemaRegistry} the body should match, or null
+     */
+    public ApiResponse(Response response, String schemaId) {
+        this.response = response;
+        this.schemaId = schemaId;
+    }
+
+    /**
+     * @return the underlying RestAssured response
+     */
+    public Response raw() {
+        return response;
+    }
+
+    public int getStatusCode() {
+        return response.getStatusCode();
+    }
+
+    public String getBody() {
+        return response.asString();
+    }
+
+    /**
+     * @return the parsed body
+     * @throws RuntimeException if the body is not valid JSON
+     */
+    public JsonNode json() {
+        if (json == null) {
+            try {
+                json = mapper.readTree(response.asByteArray());
+            } catch (IOException e) {
+                throw new RuntimeException(String.format("Response body is not valid JSON: %s", getBody()), e);
+            }
+        }
+        return json;
+    }
+
+    public String getSchemaId() {
+        return schemaId;
+    }
+
+    /**
+     * Validates the parsed body against this response's schema. The report is
+     * kept, so asserting on it again does not repeat the validation.
+     * @return the validation report
+     * @throws IllegalStateException if the response has no schema
+     */
+    public ProcessingReport validateSchema() {
+        if (schemaId == null) {
+            throw new IllegalStateException("No JSON schema is configured for this response");
+        }
+        if (schemaReport == null) {
+            schemaReport = SchemaRegistry.getInstance().validate(schemaId, json());
+        }
+        return schemaReport;
+    }
+
+    /**
+     * @param path JSON path such as {@code data[0].id}
+     * @return the node at the path, or a missing node
+     */
+    public JsonNode getNode(String path) {
+        return JsonPathCache.compile(path).evaluate(json());
+    }
+
+    /**
+     * @param path JSON path such as {@code data[0].id}
+     * @return true if the path exists and is not JSON null
+     */
+    public boolean has(String path) {
+        JsonNode node = getNode(path);
+        return !node.isMissingNode() && !node.isNull();
+    }
+
+    /**
+     * @param path JSON path such as {@code token}
+     * @return the value as text, or null if the path is absent or JSON null
+     */
+    public String getString(String path) {
+        JsonNode node = getNode(path);
+        return node.isMissingNode() || node.isNull() ? null : node.asText();
+    }
+}
@@ -0,0 +1,48 @@
+package com.automation.api;
+
+/**
+ * Outcome of one request sent with {@link ApiClient#sendAll}: the response or
+ * the error it failed with, plus how long it took.
+ */
+public class ApiResult {
+
+    private final ApiRequest request;
+    private final ApiResponse response;
+    private final Throwable error;
+    private final long elapsedMillis;
+
+    ApiResult(ApiRequest request, ApiResponse response, Throwable error, long elapsedMillis) {
+        this.request = request;
+        this.response = response;
+        this.error = error;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public ApiRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * @return the response, or null if the request failed
+     */
+    public ApiResponse getResponse() {
+        return response;
+    }
+
+    /**
+     * @return the error the request failed with, or null
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s -> %s in %d ms", request,
+                error != null ? error.toString() : String.valueOf(response.getStatusCode()), elapsedMillis);
+    }
+}
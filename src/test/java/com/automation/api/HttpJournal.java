@@ -0,0 +1,185 @@
+package com.automation.api;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.automation.Utilities.PathManager;
+import com.automation.utils.UtilProperties;
+
+/**
+ * Asynchronous journal of every HTTP exchange made by the API steps.
+ *
+ * {@link JournalFilter} turns each exchange into one compact JSON line and
+ * hands it to {@link #record}, which only enqueues it; a daemon thread drains
+ * the queue into http-&lt;run&gt;.ndjson under api.journal.dir (by default
+ * test-output/journal). The last entries
+ * of each scenario are also kept in memory so that a failing scenario can
+ * attach them to its report (see ScenarioHooks).
+ *
+ * Settings: api.journal.enabled, api.journal.dir, api.journal.queueSize,
+ * api.journal.maxBodyChars and api.journal.entriesPerScenario.
+ */
+public class HttpJournal {
+
+    private static final Logger logger = LogManager.getLogger(HttpJournal.class);
+
+    private static final HttpJournal instance = new HttpJournal();
+
+    private final boolean enabled;
+    private final int maxBodyChars;
+    private final int entriesPerScenario;
+    private final BlockingQueue<String> queue;
+    private final Map<String, Deque<String>> byScenario = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final File file;
+    // Queued by close(); compared by identity so no real entry can match it
+    private static final String END_OF_JOURNAL = new String("end-of-journal");
+
+    private volatile Thread writer;
+    private boolean shutdownHookAdded;
+
+    private HttpJournal() {
+        UtilProperties properties = UtilProperties.getInstance();
+        enabled = Boolean.parseBoolean(properties.getProperty("api.journal.enabled", "true"));
+        maxBodyChars = properties.getInteger("api.journal.maxBodyChars", 2000);
+        entriesPerScenario = properties.getInteger("api.journal.entriesPerScenario", 50);
+        queue = new LinkedBlockingQueue<>(properties.getInteger("api.journal.queueSize", 10000));
+        String journalDir = PathManager.getAbsolutePath(properties.getProperty("api.journal.dir", "test-output/journal"));
+        PathManager.ensureDirectoryExists(journalDir);
+        file = new File(journalDir, "http-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".ndjson");
+    }
+
+    public static HttpJournal getInstance() {
+        return instance;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return bodies longer than this many characters are truncated
+     */
+    public int getMaxBodyChars() {
+        return maxBodyChars;
+    }
+
+    /**
+     * Queues one journal line without blocking the caller. If the writer
+     * falls behind and the queue is full, the line is dropped and counted.
+     * @param scenarioId scenario the exchange belongs to, or null
+     * @param line JSON object on a single line
+     */
+    public void record(String scenarioId, String line) {
+        if (writer == null) {
+            startWriter();
+        }
+        if (!queue.offer(line)) {
+            dropped.incrementAndGet();
+        }
+        if (scenarioId != null) {
+            Deque<String> entries = byScenario.computeIfAbsent(scenarioId, key -> new ArrayDeque<>());
+            synchronized (entries) {
+                entries.addLast(line);
+                if (entries.size() > entriesPerScenario) {
+                    entries.removeFirst();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the entries kept for a scenario.
+     * @param scenarioId scenario id as published in ExecutionContext
+     * @return the entries as NDJSON, or null if the scenario made no requests
+     */
+    public String drainScenario(String scenarioId) {
+        Deque<String> entries = scenarioId == null ? null : byScenario.remove(scenarioId);
+        if (entries == null) {
+            return null;
+        }
+        synchronized (entries) {
+            return entries.isEmpty() ? null : String.join(System.lineSeparator(), entries);
+        }
+    }
+
+    /**
+     * Writes out what is still queued and stops the writer thread.
+     */
+    public synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            // Not interrupt(): that would close the file channel mid-write
+            queue.put(END_OF_JOURNAL);
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+        if (dropped.get() > 0) {
+            logger.warn("HTTP journal dropped {} entries because the writer fell behind", dropped.get());
+        }
+        logger.info("HTTP journal written to {}", file.getAbsolutePath());
+    }
+
+    private synchronized void startWriter() {
+        if (writer != null) {
+            return;
+        }
+        writer = new Thread(this::drain, "http-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        if (!shutdownHookAdded) {
+            // Runners close the journal themselves; this covers any other entry point
+            Runtime.getRuntime().addShutdownHook(new Thread(this::close, "http-journal-close"));
+            shutdownHookAdded = true;
+        }
+    }
+
+    private void drain() {
+        List<String> batch = new ArrayList<>();
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            boolean running = true;
+            while (running) {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+                for (String line : batch) {
+                    if (line == END_OF_JOURNAL) {
+                        running = false;
+                        break;
+                    }
+                    out.write(line);
+                    out.newLine();
+                }
+                batch.clear();
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.error("Could not write the HTTP journal to {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.automation.api;
+
+import java.util.concurrent.TimeUnit;
+
+import com.automation.utils.ExecutionContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * RestAssured filter that records every exchange in the {@link HttpJournal}.
+ *
+ * Captures method, URL, status, headers, timing and bodies truncated to
+ * api.journal.maxBodyChars, tagged with the scenario and step from
+ * {@link ExecutionContext}. Credentials in Authorization and Cookie headers
+ * are masked. Building the entry is the only work done on the request thread.
+ */
+public class JournalFilter implements Filter {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @Override
+    public Response filter(FilterableRequestSpecification request, FilterableResponseSpecification responseSpec,
+                           FilterContext context) {
+        HttpJournal journal = HttpJournal.getInstance();
+        if (!journal.isEnabled()) {
+            return context.next(request, responseSpec);
+        }
+
+        long start = System.nanoTime();
+        ObjectNode entry = mapper.createObjectNode();
+        entry.put("time", System.currentTimeMillis());
+        entry.put("scenario", ExecutionContext.getScenarioName());
+        entry.put("step", ExecutionContext.getStepText());
+        entry.put("method", request.getMethod());
+        entry.put("url", request.getURI());
+        entry.set("requestHeaders", headers(request.getHeaders()));
+        Object body = request.getBody();
+        if (body != null) {
+            entry.put("requestBody", truncate(body.toString(), journal.getMaxBodyChars()));
+        }
+
+        try {
+            Response response = context.next(request, responseSpec);
+            entry.put("status", response.getStatusCode());
+            entry.put("millis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            entry.set("responseHeaders", headers(response.getHeaders()));
+            entry.put("responseBody", truncate(response.asString(), journal.getMaxBodyChars()));
+            return response;
+        } catch (RuntimeException e) {
+            entry.put("millis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            entry.put("error", e.toString());
+            throw e;
+        } finally {
+            journal.record(ExecutionContext.getScenarioId(), entry.toString());
+        }
+    }
+
+    private static ObjectNode headers(Headers headers) {
+        ObjectNode node = mapper.createObjectNode();
+        for (Header header : headers) {
+            String name = header.getName();
+            boolean secret = name.equalsIgnoreCase("Authorization") || name.equalsIgnoreCase("Cookie")
+                    || name.equalsIgnoreCase("Set-Cookie");
+            node.put(name, secret ? "***" : header.getValue());
+        }
+        return node;
+    }
+
+    private static String truncate(String text, int maxChars) {
+        if (text == null || text.length() <= maxChars) {
+            return text;
+        }
+        return text.substring(0, maxChars) + String.format("...(%d more chars)", text.length() - maxChars);
+    }
+}
@@ -0,0 +1,119 @@
+package com.automation.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Run-wide cache of compiled JSON path expressions.
+ *
+ * Expressions use the dotted form seen in the step definitions, for example
+ * {@code id}, {@code data[0].first_name} or {@code support.url}. Each distinct
+ * expression is tokenised once and then evaluated against any number of parsed
+ * responses by walking the Jackson tree, without re-reading the text.
+ */
+public final class JsonPathCache {
+
+    private static final Map<String, CompiledPath> cache = new ConcurrentHashMap<>();
+
+    private JsonPathCache() {
+    }
+
+    /**
+     * @param expression dotted path with optional [index] segments
+     * @return the compiled path, shared by every caller using the same expression
+     * @throws IllegalArgumentException if the expression is malformed
+     */
+    public static CompiledPath compile(String expression) {
+        return cache.computeIfAbsent(expression, CompiledPath::new);
+    }
+
+    /**
+     * @return number of distinct expressions compiled in this run
+     */
+    public static int size() {
+        return cache.size();
+    }
+
+    /**
+     * A path split into field names and array indices.
+     */
+    public static final class CompiledPath {
+
+        private final String expression;
+        private final Object[] segments;
+
+        private CompiledPath(String expression) {
+            this.expression = expression;
+            this.segments = parse(expression);
+        }
+
+        /**
+         * @param root parsed response body
+         * @return the node at this path, or a missing node if any segment is absent
+         */
+        public JsonNode evaluate(JsonNode root) {
+            JsonNode node = root;
+            for (Object segment : segments) {
+                node = segment instanceof Integer ? node.path((Integer) segment) : node.path((String) segment);
+                if (node.isMissingNode()) {
+                    break;
+                }
+            }
+            return node;
+        }
+
+        @Override
+        public String toString() {
+            return expression;
+        }
+
+        private static Object[] parse(String expression) {
+            List<Object> segments = new ArrayList<>();
+            StringBuilder name = new StringBuilder();
+            int i = 0;
+            while (i < expression.length()) {
+                char c = expression.charAt(i);
+                if (c == '.') {
+                    addName(segments, name, expression);
+                    i++;
+                } else if (c == '[') {
+                    if (name.length() > 0) {
+                        addName(segments, name, expression);
+                    }
+                    int close = expression.indexOf(']', i);
+                    if (close < 0) {
+                        throw new IllegalArgumentException(String.format("Unclosed '[' in JSON path '%s'", expression));
+                    }
+                    try {
+                        segments.add(Integer.valueOf(expression.substring(i + 1, close).trim()));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException(String.format("Invalid array index in JSON path '%s'", expression), e);
+                    }
+                    i = close + 1;
+                    if (i < expression.length() && expression.charAt(i) == '.') {
+                        i++;
+                    }
+                } else {
+                    name.append(c);
+                    i++;
+                }
+            }
+            if (name.length() > 0 || segments.isEmpty()) {
+                addName(segments, name, expression);
+            }
+            return segments.toArray();
+        }
+
+        private static void addName(List<Object> segments, StringBuilder name, String expression) {
+            if (name.length() == 0) {
+                throw new IllegalArgumentException(String.format("Empty segment in JSON path '%s'", expression));
+            }
+            segments.add(name.toString());
+            name.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.automation.api;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Run-scoped memoization of idempotent GET responses.
+ *
+ * Only used by scenarios tagged @cacheable (see {@link ApiClient#enableResponseCache}).
+ * The key covers method, URL, headers and auth token, so requests that differ
+ * in any of them are fetched separately. When several scenarios ask for the
+ * same key at once, one of them fetches and the others wait for its result.
+ * Only successful (2xx) responses are kept.
+ */
+public class ResponseCache {
+
+    private static final Logger logger = LogManager.getLogger(ResponseCache.class);
+
+    private static final ResponseCache instance = new ResponseCache();
+
+    private final Map<String, CompletableFuture<ApiResponse>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private ResponseCache() {
+    }
+
+    public static ResponseCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the cached response for a key, fetching it on the first request.
+     * @param key request key, see {@link ApiClient}
+     * @param fetch sends the request when the key is not cached yet
+     * @return the cached or freshly fetched response
+     */
+    public ApiResponse get(String key, Supplier<ApiResponse> fetch) {
+        CompletableFuture<ApiResponse> created = new CompletableFuture<>();
+        CompletableFuture<ApiResponse> existing = entries.putIfAbsent(key, created);
+        if (existing != null) {
+            hits.incrementAndGet();
+            logger.debug("Response cache hit: {}", key);
+            try {
+                return existing.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for a cached response", e);
+            } catch (ExecutionException e) {
+                // The fetching scenario failed; fetch independently so this one reports its own error
+                return fetch.get();
+            }
+        }
+
+        misses.incrementAndGet();
+        try {
+            ApiResponse response = fetch.get();
+            if (response.getStatusCode() / 100 != 2) {
+                entries.remove(key, created);
+            }
+            created.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            entries.remove(key, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+}
@@ -0,0 +1,78 @@
+package com.automation.api;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.automation.Utilities.PathManager;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.main.JsonSchema;
+import com.github.fge.jsonschema.main.JsonSchemaFactory;
+
+/**
+ * Compiled JSON schemas, loaded from src/test/resources/schemas.
+ *
+ * A schema id is the file name without {@code .json}. Each schema is read and
+ * compiled the first time it is used and the compiled form is reused for the
+ * rest of the run, so validating a response only costs the tree walk over the
+ * body that {@link ApiResponse} has already parsed.
+ */
+public class SchemaRegistry {
+
+    private static final Logger logger = LogManager.getLogger(SchemaRegistry.class);
+
+    private static final SchemaRegistry instance = new SchemaRegistry();
+
+    private final JsonSchemaFactory factory = JsonSchemaFactory.byDefault();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, JsonSchema> schemas = new ConcurrentHashMap<>();
+    private final File schemaDirectory = new File(PathManager.getTestResourcePath("schemas"));
+
+    private SchemaRegistry() {
+    }
+
+    public static SchemaRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param schemaId file name of the schema without extension
+     * @return the compiled schema
+     * @throws RuntimeException if the schema is missing or invalid
+     */
+    public JsonSchema getSchema(String schemaId) {
+        return schemas.computeIfAbsent(schemaId, this::compile);
+    }
+
+    /**
+     * Validates a parsed document against a schema.
+     * @param schemaId file name of the schema without extension
+     * @param document parsed JSON, usually {@link ApiResponse#json()}
+     * @return the validation report
+     */
+    public ProcessingReport validate(String schemaId, JsonNode document) {
+        try {
+            return getSchema(schemaId).validate(document);
+        } catch (ProcessingException e) {
+            throw new RuntimeException(String.format("Could not validate against schema '%s'", schemaId), e);
+        }
+    }
+
+    private JsonSchema compile(String schemaId) {
+        File file = new File(schemaDirectory, schemaId + ".json");
+        try {
+            JsonSchema schema = factory.getJsonSchema(mapper.readTree(file));
+            logger.info("Compiled JSON schema '{}'", schemaId);
+            return schema;
+        } catch (IOException | ProcessingException e) {
+            throw new RuntimeException(String.format("Could not load JSON schema '%s' from %s", schemaId, file), e);
+        }
+    }
+}
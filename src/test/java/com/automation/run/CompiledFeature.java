@@ -0,0 +1,326 @@
+package com.automation.run;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+import io.cucumber.core.backend.Backend;
+import io.cucumber.core.backend.BackendProviderService;
+import io.cucumber.core.backend.DataTableTypeDefinition;
+import io.cucumber.core.backend.DefaultDataTableCellTransformerDefinition;
+import io.cucumber.core.backend.DefaultDataTableEntryTransformerDefinition;
+import io.cucumber.core.backend.DefaultParameterTransformerDefinition;
+import io.cucumber.core.backend.DocStringTypeDefinition;
+import io.cucumber.core.backend.Glue;
+import io.cucumber.core.backend.HookDefinition;
+import io.cucumber.core.backend.ParameterTypeDefinition;
+import io.cucumber.core.backend.StepDefinition;
+import io.cucumber.plugin.event.Event;
+import io.cucumber.plugin.event.EventHandler;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.cucumber.plugin.event.TestRunStarted;
+import io.cucumber.plugin.event.TestSourceRead;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.annotations.AfterSuite;
+
+import com.automation.Utilities.PathManager;
+import com.automation.api.ApiConnectionPool;
+import com.automation.api.ApiMockServer;
+import com.automation.api.HttpJournal;
+import com.automation.manager.DriverManager;
+import com.automation.manager.DriverReaper;
+import com.aventstack.extentreports.cucumber.adapter.ExtentCucumberAdapter;
+
+/**
+ * Base class of the TestNG classes generated by {@link FeatureCompiler}, one
+ * per compiled feature file.
+ *
+ * All compiled features of a run share one event publisher with the Extent
+ * adapter and ScenarioTracker registered, so the Spark report, the scenario
+ * history and ExecutionContext work as with the Cucumber runners. The feature
+ * source is published once per file, as the Extent adapter reads the feature
+ * and scenario descriptions from it.
+ *
+ * Scenarios are retried like those of the Cucumber runners
+ * ({@link ScenarioRetry}); {@link Planner} leaves quarantined scenarios to the
+ * quarantine lane, keeps this machine's shard and queues the rest
+ * longest-first. Hooks are run through Cucumber's Java backend, which passes
+ * them the {@link io.cucumber.java.Scenario}.
+ */
+public abstract class CompiledFeature {
+
+    private static final Logger logger = LogManager.getLogger(CompiledFeature.class);
+
+    private static Events events;
+    private static final Map<String, HookDefinition> hooks = new HashMap<>();
+    private static final Set<String> gluePackages = new HashSet<>();
+    private static final Set<URI> sources = new HashSet<>();
+    private static final ScenarioRetry retry = new ScenarioRetry("Compiled");
+
+    private final String path;
+    private final URI uri;
+
+    /**
+     * Line of a generated scenario in its feature file, read by {@link Planner}
+     * before the scenario runs.
+     */
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.METHOD)
+    public @interface Line {
+        int value();
+    }
+
+    /**
+     * Adds the hooks and steps of one attempt of a scenario.
+     */
+    public interface Definition {
+        void define(CompiledScenario s);
+    }
+
+    /**
+     * @param path feature file, relative to the project directory
+     */
+    protected CompiledFeature(String path) {
+        this.path = path;
+        this.uri = new File(PathManager.getAbsolutePath(path)).toURI();
+    }
+
+    /**
+     * Runs a scenario of this feature, again after each failure while retries
+     * are left.
+     *
+     * @param keyword Gherkin keyword, e.g. "Scenario"
+     * @param name scenario name
+     * @param line line of the scenario, or of its example row, in the feature file
+     * @param tags tags of the scenario, including inherited ones
+     * @param definition adds the hooks and steps, once per attempt
+     */
+    protected void run(String keyword, String name, int line, String[] tags, Definition definition) {
+        retry.run(key(line), name, () -> {
+            CompiledScenario scenario = new CompiledScenario(events(), uri, keyword, name, line, tags);
+            definition.define(scenario);
+            scenario.run();
+        });
+    }
+
+    /**
+     * @param line line of a scenario of this feature
+     * @return its history key
+     */
+    public String key(int line) {
+        return ScenarioHistory.key(uri, line);
+    }
+
+    private Events events() {
+        synchronized (CompiledFeature.class) {
+            if (events == null) {
+                events = new Events();
+                new ExtentCucumberAdapter("").setEventPublisher(events);
+                new ScenarioTracker().setEventPublisher(events);
+                events.send(new TestRunStarted(Instant.now()));
+            }
+            if (sources.add(uri)) {
+                try {
+                    String source = new String(Files.readAllBytes(Paths.get(uri)), StandardCharsets.UTF_8);
+                    events.send(new TestSourceRead(Instant.now(), uri, source));
+                } catch (IOException e) {
+                    throw new RuntimeException(String.format("Could not read the feature %s; run the compiled tests from the project directory", path), e);
+                }
+            }
+            return events;
+        }
+    }
+
+    /**
+     * @param glue class declaring the hook
+     * @param method name of the hook method
+     * @return the hook as Cucumber's Java backend runs it
+     */
+    static HookDefinition hook(Class<?> glue, String method) {
+        synchronized (CompiledFeature.class) {
+            if (gluePackages.add(glue.getPackage().getName())) {
+                loadHooks(glue.getPackage().getName());
+            }
+            HookDefinition hook = hooks.get(glue.getName() + "." + method);
+            if (hook == null) {
+                throw new RuntimeException(String.format("No hook %s.%s; run mvn test -Pcodegen again", glue.getName(), method));
+            }
+            return hook;
+        }
+    }
+
+    private static void loadHooks(String gluePackage) {
+        Glue collector = new Glue() {
+            @Override
+            public void addBeforeHook(HookDefinition hook) {
+                add(hook);
+            }
+
+            @Override
+            public void addAfterHook(HookDefinition hook) {
+                add(hook);
+            }
+
+            private void add(HookDefinition hook) {
+                // getLocation() is "package.Class.method(parameter types)"
+                String location = hook.getLocation();
+                hooks.put(location.substring(0, location.indexOf('(')), hook);
+            }
+
+            @Override
+            public void addStepDefinition(StepDefinition definition) {
+            }
+
+            @Override
+            public void addBeforeStepHook(HookDefinition hook) {
+            }
+
+            @Override
+            public void addAfterStepHook(HookDefinition hook) {
+            }
+
+            @Override
+            public void addParameterType(ParameterTypeDefinition definition) {
+            }
+
+            @Override
+            public void addDataTableType(DataTableTypeDefinition definition) {
+            }
+
+            @Override
+            public void addDefaultParameterTransformer(DefaultParameterTransformerDefinition definition) {
+            }
+
+            @Override
+            public void addDefaultDataTableEntryTransformer(DefaultDataTableEntryTransformerDefinition definition) {
+            }
+
+            @Override
+            public void addDefaultDataTableCellTransformer(DefaultDataTableCellTransformerDefinition definition) {
+            }
+
+            @Override
+            public void addDocStringType(DocStringTypeDefinition definition) {
+            }
+        };
+        // Hook instances come from the object factory of the scenario running on the thread
+        for (BackendProviderService service : ServiceLoader.load(BackendProviderService.class)) {
+            Backend backend = service.create(CompiledScenario::lookup, type -> true, Thread.currentThread()::getContextClassLoader);
+            backend.loadGlue(collector, Collections.singletonList(URI.create("classpath:/" + gluePackage.replace('.', '/'))));
+        }
+    }
+
+    /**
+     * Finishes the reports and releases what the scenarios used, as the
+     * Cucumber runners do at the end of the suite.
+     */
+    @AfterSuite(alwaysRun = true)
+    public void finishCompiledRun() {
+        synchronized (CompiledFeature.class) {
+            if (events == null) {
+                return;
+            }
+            retry.publish();
+            ScopedObjectFactory.publish("Compiled");
+            events.send(new TestRunFinished(Instant.now()));
+            events = null;
+            hooks.clear();
+            gluePackages.clear();
+            sources.clear();
+        }
+        logger.info("Compiled features finished");
+        DriverManager.getInstance().closeDriver();
+        DriverReaper.shutdown();
+        ApiMockServer.stop();
+        HttpJournal.getInstance().close();
+        ApiConnectionPool.getInstance().shutdown();
+    }
+
+    /**
+     * Delivers the events of the compiled scenarios to the registered plugins,
+     * one event at a time, on the thread that sends it.
+     */
+    static class Events implements EventPublisher {
+
+        private final Map<Class<?>, List<EventHandler<?>>> handlers = new HashMap<>();
+
+        @Override
+        public synchronized <T> void registerHandlerFor(Class<T> type, EventHandler<T> handler) {
+            handlers.computeIfAbsent(type, key -> new ArrayList<>()).add(handler);
+        }
+
+        @Override
+        public synchronized <T> void removeHandlerFor(Class<T> type, EventHandler<T> handler) {
+            List<EventHandler<?>> registered = handlers.get(type);
+            if (registered != null) {
+                registered.remove(handler);
+            }
+        }
+
+        synchronized void send(Event event) {
+            dispatch(event.getClass(), event);
+            dispatch(Event.class, event);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void dispatch(Class<?> type, Event event) {
+            for (EventHandler<?> handler : handlers.getOrDefault(type, Collections.emptyList())) {
+                ((EventHandler<Event>) handler).receive(event);
+            }
+        }
+    }
+
+    /**
+     * TestNG method interceptor of the compiled suite (codegen.xml): drops the
+     * quarantined scenarios, which QuarantinedApiTests and QuarantinedWebTests
+     * run, keeps the scenarios of the shard given by -Dshard=i/K and orders
+     * them longest-first, as the Cucumber runners do with their data providers.
+     */
+    public static class Planner implements IMethodInterceptor {
+
+        @Override
+        public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+            Map<IMethodInstance, String> keys = new HashMap<>();
+            List<IMethodInstance> scenarios = new ArrayList<>();
+            Set<IMethodInstance> others = new LinkedHashSet<>();
+            for (IMethodInstance method : methods) {
+                Line line = method.getMethod().getConstructorOrMethod().getMethod().getAnnotation(Line.class);
+                if (line != null && method.getInstance() instanceof CompiledFeature) {
+                    keys.put(method, ((CompiledFeature) method.getInstance()).key(line.value()));
+                    scenarios.add(method);
+                } else {
+                    others.add(method);
+                }
+            }
+            List<IMethodInstance> planned = new ArrayList<>(ShardPlanner.select(
+                    FlakinessTracker.getInstance().filter(scenarios, keys::get, false), keys::get));
+            ScenarioHistory history = ScenarioHistory.getInstance();
+            planned.sort(Comparator.comparingLong((IMethodInstance method) -> history.estimate(keys.get(method))).reversed());
+            planned.addAll(others);
+            return planned;
+        }
+    }
+}
@@ -0,0 +1,549 @@
+package com.automation.run;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.ServiceLoader;
+import java.util.UUID;
+
+import io.cucumber.core.backend.CucumberInvocationTargetException;
+import io.cucumber.core.backend.HookDefinition;
+import io.cucumber.core.backend.ObjectFactory;
+import io.cucumber.core.backend.TestCaseState;
+import io.cucumber.datatable.DataTable;
+import io.cucumber.plugin.event.Argument;
+import io.cucumber.plugin.event.DataTableArgument;
+import io.cucumber.plugin.event.DocStringArgument;
+import io.cucumber.plugin.event.EmbedEvent;
+import io.cucumber.plugin.event.HookTestStep;
+import io.cucumber.plugin.event.HookType;
+import io.cucumber.plugin.event.Location;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.Result;
+import io.cucumber.plugin.event.Status;
+import io.cucumber.plugin.event.Step;
+import io.cucumber.plugin.event.StepArgument;
+import io.cucumber.plugin.event.TestCase;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestCaseStarted;
+import io.cucumber.plugin.event.TestStep;
+import io.cucumber.plugin.event.TestStepFinished;
+import io.cucumber.plugin.event.TestStepStarted;
+import io.cucumber.plugin.event.WriteEvent;
+import org.testng.SkipException;
+
+/**
+ * One scenario of a class generated by {@link FeatureCompiler}.
+ *
+ * The generated code adds the steps, already bound to their glue methods with
+ * converted arguments, and the hooks, which run through Cucumber's Java backend
+ * so they get their {@link io.cucumber.java.Scenario}. {@link #run()} runs them
+ * the way Cucumber does: after a failed or skipped hook or step the remaining
+ * steps are skipped, while After hooks always run. Glue instances come from the
+ * object factory selected with cucumber.object-factory, a new one per scenario.
+ *
+ * Every hook and step is published to the plugins registered by
+ * {@link CompiledFeature} as the Cucumber runtime would, so the Extent adapter
+ * and ScenarioTracker report a compiled scenario like any other.
+ */
+public class CompiledScenario implements TestCase {
+
+    // Scenario running on this thread, whose object factory provides the hook instances
+    private static final ThreadLocal<CompiledScenario> current = new ThreadLocal<>();
+
+    /**
+     * Body of a hook or step: a direct call of the glue method.
+     */
+    public interface Body {
+        void run() throws Throwable;
+    }
+
+    private final CompiledFeature.Events bus;
+    private final URI uri;
+    private final String keyword;
+    private final String name;
+    private final int line;
+    private final List<String> tags;
+    private final UUID id;
+    private final List<TestStep> testSteps = new ArrayList<>();
+    private final List<Body> bodies = new ArrayList<>();
+    private final ObjectFactory objectFactory = loadObjectFactory();
+    private final State state = new State();
+
+    private Status status = Status.PASSED;
+    private Throwable error;
+    private StepArgument currentArgument;
+
+    CompiledScenario(CompiledFeature.Events bus, URI uri, String keyword, String name, int line, String... tags) {
+        this.bus = bus;
+        this.uri = uri;
+        this.keyword = keyword;
+        this.name = name;
+        this.line = line;
+        this.tags = Arrays.asList(tags);
+        this.id = UUID.randomUUID();
+    }
+
+    /**
+     * Adds a Before hook.
+     *
+     * @param glue class declaring the hook
+     * @param method name of the hook method
+     */
+    public void before(Class<?> glue, String method) {
+        hook(glue, HookType.BEFORE, CompiledFeature.hook(glue, method));
+    }
+
+    /**
+     * Adds an After hook. After hooks run even when a step failed.
+     *
+     * @param glue class declaring the hook
+     * @param method name of the hook method
+     */
+    public void after(Class<?> glue, String method) {
+        hook(glue, HookType.AFTER, CompiledFeature.hook(glue, method));
+    }
+
+    /**
+     * Adds a step.
+     *
+     * @param keyword Gherkin keyword, e.g. "Given "
+     * @param text step text
+     * @param stepLine line of the step in the feature file
+     * @param argument data table or doc string of the step, or null
+     * @param glue class declaring the step definition
+     * @param codeLocation method as Cucumber reports it
+     * @param pattern expression of the step definition
+     * @param body calls the step definition
+     */
+    public void step(String keyword, String text, int stepLine, StepArgument argument,
+                     Class<?> glue, String codeLocation, String pattern, Body body) {
+        add(glue, new PickleStep(keyword, text, stepLine, argument, codeLocation, pattern), body);
+    }
+
+    /**
+     * @param type glue class
+     * @return the instance of the glue class for this scenario
+     */
+    public <T> T glue(Class<T> type) {
+        return objectFactory.getInstance(type);
+    }
+
+    /**
+     * @param type glue class
+     * @return the instance of the glue class for the scenario running on this thread
+     */
+    static <T> T lookup(Class<T> type) {
+        CompiledScenario scenario = current.get();
+        if (scenario == null) {
+            throw new RuntimeException(String.format("%s requested outside a compiled scenario", type.getName()));
+        }
+        return scenario.glue(type);
+    }
+
+    /**
+     * @return the data table of the running step
+     */
+    public DataTable dataTable() {
+        return DataTable.create(((DataTableArgument) currentArgument).cells());
+    }
+
+    /**
+     * @return the doc string of the running step
+     */
+    public String docString() {
+        return ((DocStringArgument) currentArgument).getContent();
+    }
+
+    /**
+     * Runs the hooks and steps and reports the scenario. The first failure is
+     * rethrown, wrapped in a RuntimeException when it is a checked exception; a
+     * skipped scenario throws a SkipException.
+     */
+    public void run() {
+        long start = System.nanoTime();
+        current.set(this);
+        objectFactory.start();
+        bus.send(new TestCaseStarted(Instant.now(), this));
+        try {
+            for (int i = 0; i < testSteps.size(); i++) {
+                runStep(testSteps.get(i), bodies.get(i));
+            }
+        } finally {
+            objectFactory.stop();
+            current.remove();
+            bus.send(new TestCaseFinished(Instant.now(), this,
+                    new Result(status, Duration.ofNanos(System.nanoTime() - start), error)));
+        }
+        if (status == Status.FAILED) {
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            }
+            if (error instanceof Error) {
+                throw (Error) error;
+            }
+            throw new RuntimeException(error);
+        }
+        if (status == Status.SKIPPED) {
+            throw error instanceof SkipException ? (SkipException) error : new SkipException(name + " was skipped");
+        }
+    }
+
+    private void hook(Class<?> glue, HookType type, HookDefinition definition) {
+        add(glue, new Hook(type, definition.getLocation()), () -> {
+            try {
+                definition.execute(state);
+            } catch (CucumberInvocationTargetException e) {
+                throw e.getInvocationTargetExceptionCause();
+            }
+        });
+    }
+
+    private void add(Class<?> glue, TestStep step, Body body) {
+        objectFactory.addClass(glue);
+        testSteps.add(step);
+        bodies.add(body);
+    }
+
+    private void runStep(TestStep step, Body body) {
+        bus.send(new TestStepStarted(Instant.now(), this, step));
+        boolean afterHook = step instanceof Hook && ((Hook) step).type == HookType.AFTER;
+        Status stepStatus = Status.SKIPPED;
+        Throwable stepError = null;
+        long start = System.nanoTime();
+        if (status == Status.PASSED || afterHook) {
+            currentArgument = step instanceof PickleStep ? ((PickleStep) step).argument : null;
+            try {
+                body.run();
+                stepStatus = Status.PASSED;
+            } catch (SkipException e) {
+                stepError = e;
+            } catch (Throwable t) {
+                stepStatus = Status.FAILED;
+                stepError = t;
+            } finally {
+                currentArgument = null;
+            }
+        }
+        Result result = new Result(stepStatus, Duration.ofNanos(System.nanoTime() - start), stepError);
+        if (stepStatus == Status.FAILED && status != Status.FAILED) {
+            status = Status.FAILED;
+            error = stepError;
+        } else if (stepStatus == Status.SKIPPED && status == Status.PASSED) {
+            status = Status.SKIPPED;
+            error = stepError;
+        }
+        bus.send(new TestStepFinished(Instant.now(), this, step, result));
+    }
+
+    private static ObjectFactory loadObjectFactory() {
+        // The factory selected with cucumber.object-factory, as the Cucumber runners use it
+        Properties cucumber = new Properties();
+        try (InputStream in = CompiledScenario.class.getClassLoader().getResourceAsStream("cucumber.properties")) {
+            if (in != null) {
+                cucumber.load(in);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read cucumber.properties", e);
+        }
+        String selected = System.getProperty("cucumber.object-factory", cucumber.getProperty("cucumber.object-factory"));
+        ObjectFactory first = null;
+        for (ObjectFactory factory : ServiceLoader.load(ObjectFactory.class)) {
+            if (factory.getClass().getName().equals(selected)) {
+                return factory;
+            }
+            first = first == null ? factory : first;
+        }
+        if (first == null) {
+            throw new RuntimeException("No Cucumber ObjectFactory on the classpath; set cucumber.object-factory");
+        }
+        return first;
+    }
+
+    /**
+     * Creates the data table argument of a step.
+     *
+     * @param tableLine line of the first row in the feature file
+     * @param rows cells by row
+     * @return the argument
+     */
+    public static DataTableArgument table(int tableLine, String[]... rows) {
+        List<List<String>> cells = new ArrayList<>();
+        for (String[] row : rows) {
+            cells.add(Arrays.asList(row));
+        }
+        return new DataTableArgument() {
+            @Override
+            public List<List<String>> cells() {
+                return cells;
+            }
+
+            @Override
+            public int getLine() {
+                return tableLine;
+            }
+        };
+    }
+
+    /**
+     * Creates the doc string argument of a step.
+     *
+     * @param docLine line of the opening delimiter in the feature file
+     * @param mediaType media type after the delimiter, or null
+     * @param content the doc string
+     * @return the argument
+     */
+    public static DocStringArgument docString(int docLine, String mediaType, String content) {
+        return new DocStringArgument() {
+            @Override
+            public String getContent() {
+                return content;
+            }
+
+            @SuppressWarnings("deprecation")
+            @Override
+            public String getContentType() {
+                return mediaType;
+            }
+
+            @Override
+            public String getMediaType() {
+                return mediaType;
+            }
+
+            @Override
+            public int getLine() {
+                return docLine;
+            }
+        };
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public Integer getLine() {
+        return line;
+    }
+
+    @Override
+    public Location getLocation() {
+        return new Location(line, 0);
+    }
+
+    @Override
+    public String getKeyword() {
+        return keyword;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public String getScenarioDesignation() {
+        return ScenarioHistory.key(uri, line) + "# " + name;
+    }
+
+    @Override
+    public List<String> getTags() {
+        return tags;
+    }
+
+    @Override
+    public List<TestStep> getTestSteps() {
+        return testSteps;
+    }
+
+    @Override
+    public URI getUri() {
+        return uri;
+    }
+
+    @Override
+    public UUID getId() {
+        return id;
+    }
+
+    private class Hook implements HookTestStep {
+        final HookType type;
+        final String codeLocation;
+        final UUID stepId = UUID.randomUUID();
+
+        Hook(HookType type, String codeLocation) {
+            this.type = type;
+            this.codeLocation = codeLocation;
+        }
+
+        @Override
+        public HookType getHookType() {
+            return type;
+        }
+
+        @Override
+        public String getCodeLocation() {
+            return codeLocation;
+        }
+
+        @Override
+        public UUID getId() {
+            return stepId;
+        }
+    }
+
+    private class PickleStep implements PickleStepTestStep, Step {
+        final String stepKeyword;
+        final String text;
+        final int stepLine;
+        final StepArgument argument;
+        final String codeLocation;
+        final String pattern;
+        final UUID stepId = UUID.randomUUID();
+
+        PickleStep(String stepKeyword, String text, int stepLine, StepArgument argument, String codeLocation, String pattern) {
+            this.stepKeyword = stepKeyword;
+            this.text = text;
+            this.stepLine = stepLine;
+            this.argument = argument;
+            this.codeLocation = codeLocation;
+            this.pattern = pattern;
+        }
+
+        @Override
+        public String getPattern() {
+            return pattern;
+        }
+
+        @Override
+        public Step getStep() {
+            return this;
+        }
+
+        @Override
+        public List<Argument> getDefinitionArgument() {
+            return new ArrayList<>();
+        }
+
+        @SuppressWarnings("deprecation")
+        @Override
+        public StepArgument getStepArgument() {
+            return argument;
+        }
+
+        @Override
+        public StepArgument getArgument() {
+            return argument;
+        }
+
+        @Override
+        public String getKeyword() {
+            return stepKeyword;
+        }
+
+        @Override
+        public String getText() {
+            return text;
+        }
+
+        @Override
+        public int getLine() {
+            return stepLine;
+        }
+
+        @Override
+        public Location getLocation() {
+            return new Location(stepLine, 0);
+        }
+
+        @SuppressWarnings("deprecation")
+        @Override
+        public int getStepLine() {
+            return stepLine;
+        }
+
+        @Override
+        public URI getUri() {
+            return uri;
+        }
+
+        @SuppressWarnings("deprecation")
+        @Override
+        public String getStepText() {
+            return text;
+        }
+
+        @Override
+        public String getCodeLocation() {
+            return codeLocation;
+        }
+
+        @Override
+        public UUID getId() {
+            return stepId;
+        }
+    }
+
+    /**
+     * What hooks see through {@link io.cucumber.java.Scenario}.
+     */
+    private class State implements TestCaseState {
+
+        @Override
+        public Collection<String> getSourceTagNames() {
+            return tags;
+        }
+
+        @Override
+        public io.cucumber.core.backend.Status getStatus() {
+            return io.cucumber.core.backend.Status.valueOf(status.name());
+        }
+
+        @Override
+        public boolean isFailed() {
+            return status == Status.FAILED;
+        }
+
+        @Override
+        public void attach(byte[] data, String mediaType, String attachmentName) {
+            bus.send(new EmbedEvent(Instant.now(), CompiledScenario.this, data, mediaType, attachmentName));
+        }
+
+        @Override
+        public void attach(String data, String mediaType, String attachmentName) {
+            attach(data.getBytes(StandardCharsets.UTF_8), mediaType, attachmentName);
+        }
+
+        @Override
+        public void log(String text) {
+            bus.send(new WriteEvent(Instant.now(), CompiledScenario.this, text));
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getId() {
+            return id.toString();
+        }
+
+        @Override
+        public URI getUri() {
+            return uri;
+        }
+
+        @Override
+        public Integer getLine() {
+            return line;
+        }
+    }
+}
@@ -0,0 +1,515 @@
+package com.automation.run;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import io.cucumber.cucumberexpressions.Argument;
+import io.cucumber.cucumberexpressions.ExpressionFactory;
+import io.cucumber.cucumberexpressions.ParameterTypeRegistry;
+import io.cucumber.datatable.DataTable;
+import io.cucumber.gherkin.Gherkin;
+import io.cucumber.messages.IdGenerator;
+import io.cucumber.messages.Messages.Envelope;
+import io.cucumber.messages.Messages.GherkinDocument.Feature;
+import io.cucumber.messages.Messages.GherkinDocument.Feature.FeatureChild;
+import io.cucumber.messages.Messages.GherkinDocument.Feature.FeatureChild.RuleChild;
+import io.cucumber.messages.Messages.GherkinDocument.Feature.Scenario.Examples;
+import io.cucumber.messages.Messages.GherkinDocument.Feature.Step;
+import io.cucumber.messages.Messages.GherkinDocument.Feature.TableRow;
+import io.cucumber.messages.Messages.Pickle;
+import io.cucumber.messages.Messages.Pickle.PickleStep;
+import io.cucumber.messages.Messages.Pickle.PickleTag;
+import io.cucumber.messages.Messages.PickleStepArgument;
+import io.cucumber.tagexpressions.TagExpressionParser;
+import io.cucumber.testng.PickleWrapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.automation.Utilities.PathManager;
+import com.automation.utils.UtilProperties;
+
+/**
+ * Compiles feature files into TestNG classes that call the bound step
+ * methods directly (mvn test -Pcodegen).
+ *
+ * Gherkin parsing, step matching and argument conversion happen here, at
+ * build time: each scenario becomes a test method that adds its hooks and
+ * steps to a {@link CompiledScenario} as plain method calls with literal
+ * arguments. Step definitions are bound through a {@link StepIndex} of the
+ * glue sources, built here.
+ * The generated sources are compiled into the test classes, and a TestNG
+ * suite listing them (codegen.xml) is written next to the sources. The profile
+ * runs it after testng.xml, on codegen.threads threads, and the Cucumber
+ * runners leave the compiled scenarios to it ({@link #withoutCompiled}).
+ *
+ * Settings (Execution.properties): codegen.features lists the feature files
+ * to compile, codegen.tags selects their scenarios. A step without exactly
+ * one definition, or an argument the generator cannot write as a Java literal,
+ * fails the build; leave such scenarios out with codegen.tags.
+ *
+ * Arguments: the directory for the generated sources, the test classes
+ * directory and optionally the feature files, overriding codegen.features.
+ */
+public class FeatureCompiler {
+
+    private static final Logger logger = LogManager.getLogger(FeatureCompiler.class);
+
+    public static final String PACKAGE = "com.automation.generated";
+    public static final String SUITE = "codegen.xml";
+    public static final String SOURCES = "src/test/java";
+    public static final String GLUE = "com.automation.stepdef";
+
+    private final StepIndex index;
+    private final ExpressionFactory expressions = new ExpressionFactory(new ParameterTypeRegistry(Locale.ENGLISH));
+    private final String tags;
+
+    // Line and keyword of every Gherkin node of the feature being compiled, by id
+    private final Map<String, Integer> lines = new HashMap<>();
+    private final Map<String, String> keywords = new HashMap<>();
+
+    public FeatureCompiler(StepIndex index, String tags) {
+        this.index = index;
+        this.tags = tags;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: FeatureCompiler <generated sources dir> <test classes dir> [features]");
+        }
+        File sources = new File(args[0]);
+        File classes = new File(args[1]);
+        StepIndex index = StepIndex.index(new File(PathManager.getAbsolutePath(SOURCES)), GLUE);
+        if (index == null) {
+            throw new RuntimeException("The compiled step definitions are stale; run mvn test-compile first");
+        }
+        UtilProperties properties = UtilProperties.getInstance();
+        FeatureCompiler compiler = new FeatureCompiler(index, properties.getProperty("codegen.tags", ""));
+
+        File packageDir = new File(sources, PACKAGE.replace('.', File.separatorChar));
+        PathManager.ensureDirectoryExists(packageDir.getPath());
+        List<File> generated = new ArrayList<>();
+        String features = args.length > 2 && !args[2].trim().isEmpty() ? args[2] : properties.getProperty("codegen.features", "");
+        for (String feature : features.split(",")) {
+            if (!feature.trim().isEmpty()) {
+                generated.add(compiler.generate(feature.trim(), packageDir));
+            }
+        }
+        if (generated.isEmpty()) {
+            throw new RuntimeException("No features to compile; set codegen.features");
+        }
+        compile(generated, classes);
+        writeSuite(generated, new File(sources, SUITE), Math.max(1, properties.getInteger("codegen.threads", 4)));
+        logger.info("Compiled {} feature files into {}", generated.size(), classes);
+    }
+
+    /**
+     * Generates the test class of one feature file.
+     *
+     * @param feature feature file, relative to the project directory
+     * @param packageDir directory of the generated package
+     * @return the generated source file
+     */
+    public File generate(String feature, File packageDir) throws IOException {
+        lines.clear();
+        keywords.clear();
+        String path = PathManager.getAbsolutePath(feature);
+        List<Pickle> pickles = new ArrayList<>();
+        String featureName = feature;
+        List<Envelope> envelopes = Gherkin.fromPaths(Arrays.asList(path), false, true, true, new IdGenerator.Incrementing())
+                .collect(Collectors.toList());
+        for (Envelope envelope : envelopes) {
+            if (envelope.hasAttachment()) {
+                throw new RuntimeException(String.format("Could not parse %s: %s", feature, envelope.getAttachment().getBody()));
+            }
+            if (envelope.hasGherkinDocument() && envelope.getGherkinDocument().hasFeature()) {
+                featureName = envelope.getGherkinDocument().getFeature().getName();
+                collectNodes(envelope.getGherkinDocument().getFeature());
+            }
+            if (envelope.hasPickle() && matchesTags(envelope.getPickle())) {
+                pickles.add(envelope.getPickle());
+            }
+        }
+
+        String className = className(new File(feature).getName());
+        StringBuilder java = new StringBuilder();
+        java.append("package ").append(PACKAGE).append(";\n\n")
+            .append("import org.testng.annotations.Test;\n\n")
+            .append("import com.automation.run.CompiledFeature;\n")
+            .append("import com.automation.run.CompiledScenario;\n\n")
+            .append("/**\n")
+            .append(" * Feature: ").append(javadoc(featureName)).append("\n")
+            .append(" * Generated by FeatureCompiler from ").append(feature).append("; do not edit.\n")
+            .append(" */\n")
+            .append("public class ").append(className).append(" extends CompiledFeature {\n\n")
+            .append("    public ").append(className).append("() {\n")
+            .append("        super(").append(literal(feature)).append(");\n")
+            .append("    }\n");
+        Map<String, Integer> methodNames = new HashMap<>();
+        for (Pickle pickle : pickles) {
+            java.append("\n");
+            generateScenario(java, feature, pickle, methodNames);
+        }
+        java.append("}\n");
+
+        File file = new File(packageDir, className + ".java");
+        Files.write(file.toPath(), java.toString().getBytes(StandardCharsets.UTF_8));
+        logger.info("Generated {} with {} scenarios from {}", file, pickles.size(), feature);
+        return file;
+    }
+
+    private void generateScenario(StringBuilder java, String feature, Pickle pickle, Map<String, Integer> methodNames) {
+        List<String> astIds = pickle.getAstNodeIdsList();
+        int line = lines.get(astIds.get(astIds.size() - 1));
+        List<String> pickleTags = pickle.getTagsList().stream().map(PickleTag::getName).collect(Collectors.toList());
+
+        String method = methodName(pickle.getName());
+        int uses = methodNames.merge(method, 1, Integer::sum);
+        method = uses > 1 ? method + uses : method;
+        java.append("    @Test(description = ").append(literal(pickle.getName())).append(")\n")
+            .append("    @Line(").append(line).append(")\n")
+            .append("    public void ").append(method).append("() {\n")
+            .append("        run(").append(literal(keywords.get(astIds.get(0))))
+            .append(", ").append(literal(pickle.getName())).append(", ").append(line).append(", new String[] {")
+            .append(pickleTags.stream().map(FeatureCompiler::literal).collect(Collectors.joining(", ")))
+            .append("}, s -> {\n");
+
+        List<StepIndex.Hook> hooks = new ArrayList<>();
+        for (StepIndex.Hook hook : index.getHooks()) {
+            if (hook.getExpression().isEmpty() || TagExpressionParser.parse(hook.getExpression()).evaluate(pickleTags)) {
+                hooks.add(hook);
+            }
+        }
+        // Before hooks run in ascending order, After hooks in descending order
+        hooks.sort(Comparator.comparingInt(StepIndex.Hook::getOrder));
+        for (StepIndex.Hook hook : hooks) {
+            if ("Before".equals(hook.getKeyword())) {
+                generateHook(java, "before", hook);
+            }
+        }
+        for (PickleStep step : pickle.getStepsList()) {
+            generateStep(java, feature, step);
+        }
+        for (int i = hooks.size() - 1; i >= 0; i--) {
+            if ("After".equals(hooks.get(i).getKeyword())) {
+                generateHook(java, "after", hooks.get(i));
+            }
+        }
+        java.append("        });\n")
+            .append("    }\n");
+    }
+
+    private void generateHook(StringBuilder java, String kind, StepIndex.Hook hook) {
+        // Hooks run through Cucumber's Java backend, which passes them the Scenario
+        resolve(hook, hook.getClassName() + "." + hook.getMethod());
+        java.append("            s.").append(kind).append("(").append(hook.getClassName()).append(".class, ")
+            .append(literal(hook.getMethod())).append(");\n");
+    }
+
+    private void generateStep(StringBuilder java, String feature, PickleStep step) {
+        String stepId = step.getAstNodeIds(0);
+        int stepLine = lines.get(stepId);
+        String location = String.format("%s:%d '%s'", feature, stepLine, step.getText());
+        List<StepIndex.Step> matches = index.match(step.getText());
+        if (matches.size() != 1) {
+            throw new RuntimeException(String.format("Step %s has %s; only scenarios whose steps all have one definition can be compiled",
+                    location, matches.isEmpty() ? "no definition" : "several definitions " + matches));
+        }
+        StepIndex.Step definition = matches.get(0);
+        Method method = resolve(definition, location);
+
+        Type[] parameterTypes = method.getGenericParameterTypes();
+        List<Argument<?>> arguments = expressions.createExpression(definition.getExpression())
+                .match(step.getText(), parameterTypes);
+        List<String> values = new ArrayList<>();
+        for (Argument<?> argument : arguments) {
+            values.add(literal(argument.getValue(), location));
+        }
+        String argument = "null";
+        if (step.hasArgument()) {
+            PickleStepArgument stepArgument = step.getArgument();
+            Class<?> last = method.getParameterTypes()[method.getParameterCount() - 1];
+            if (stepArgument.hasDataTable() && last == DataTable.class) {
+                argument = table(stepArgument, stepLine + 1);
+                values.add("s.dataTable()");
+            } else if (stepArgument.hasDocString() && last == String.class) {
+                argument = String.format("CompiledScenario.docString(%d, %s, %s)", stepLine + 1,
+                        stepArgument.getDocString().getMediaType().isEmpty() ? "null" : literal(stepArgument.getDocString().getMediaType()),
+                        literal(stepArgument.getDocString().getContent()));
+                values.add("s.docString()");
+            } else {
+                throw new RuntimeException(String.format("Step %s: the generator only passes data tables as DataTable and doc strings as String", location));
+            }
+        }
+        if (values.size() != method.getParameterCount()) {
+            throw new RuntimeException(String.format("Step %s: %s takes %d arguments, the step has %d",
+                    location, definition, method.getParameterCount(), values.size()));
+        }
+
+        java.append("            s.step(").append(literal(keywords.get(stepId))).append(", ").append(literal(step.getText()))
+            .append(", ").append(stepLine).append(", ").append(argument).append(",\n")
+            .append("                    ").append(definition.getClassName()).append(".class, ")
+            .append(literal(codeLocation(method))).append(", ").append(literal(definition.getExpression())).append(",\n")
+            .append("                    () -> s.glue(").append(definition.getClassName()).append(".class).")
+            .append(definition.getMethod()).append("(").append(String.join(", ", values)).append("));\n");
+    }
+
+    private Method resolve(StepIndex.Step definition, String location) {
+        try {
+            Class<?> type = Class.forName(definition.getClassName());
+            for (Method method : type.getMethods()) {
+                List<String> parameterTypes = Arrays.stream(method.getParameterTypes()).map(Class::getTypeName).collect(Collectors.toList());
+                if (method.getName().equals(definition.getMethod()) && parameterTypes.equals(definition.getParameterTypes())
+                        && Modifier.isPublic(type.getModifiers())) {
+                    return method;
+                }
+            }
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException(String.format("%s: class %s not found", location, definition.getClassName()), e);
+        }
+        throw new RuntimeException(String.format("%s: %s must be a public method of a public class to be called directly", location, definition));
+    }
+
+    /**
+     * Drops the scenarios that run as compiled classes in this run, which the
+     * codegen profile marks with codegen.enabled=true: those of codegen.features
+     * matching codegen.tags.
+     *
+     * @param scenarios TestNG rows of {PickleWrapper, FeatureWrapper}
+     * @return the other rows in their original order
+     */
+    public static Object[][] withoutCompiled(Object[][] scenarios) {
+        UtilProperties properties = UtilProperties.getInstance();
+        if (!Boolean.parseBoolean(properties.getProperty("codegen.enabled", "false"))) {
+            return scenarios;
+        }
+        Set<Path> features = new HashSet<>();
+        for (String feature : properties.getProperty("codegen.features", "").split(",")) {
+            if (!feature.trim().isEmpty()) {
+                features.add(Paths.get(PathManager.getAbsolutePath(feature.trim())).normalize());
+            }
+        }
+        String tags = properties.getProperty("codegen.tags", "");
+        List<Object[]> rows = new ArrayList<>();
+        for (Object[] row : scenarios) {
+            io.cucumber.testng.Pickle pickle = ((PickleWrapper) row[0]).getPickle();
+            boolean compiled = "file".equals(pickle.getUri().getScheme())
+                    && features.contains(Paths.get(pickle.getUri()).normalize()) && matches(tags, pickle.getTags());
+            if (!compiled) {
+                rows.add(row);
+            }
+        }
+        if (rows.size() < scenarios.length) {
+            logger.info("Left {} scenarios to the compiled features", scenarios.length - rows.size());
+        }
+        return rows.toArray(new Object[0][]);
+    }
+
+    private boolean matchesTags(Pickle pickle) {
+        return matches(tags, pickle.getTagsList().stream().map(PickleTag::getName).collect(Collectors.toList()));
+    }
+
+    private static boolean matches(String tags, List<String> pickleTags) {
+        return tags.trim().isEmpty() || TagExpressionParser.parse(tags).evaluate(pickleTags);
+    }
+
+    private void collectNodes(Feature feature) {
+        for (FeatureChild child : feature.getChildrenList()) {
+            if (child.hasBackground()) {
+                collectSteps(child.getBackground().getStepsList());
+            } else if (child.hasScenario()) {
+                collectScenario(child.getScenario());
+            } else if (child.hasRule()) {
+                for (RuleChild ruleChild : child.getRule().getChildrenList()) {
+                    if (ruleChild.hasBackground()) {
+                        collectSteps(ruleChild.getBackground().getStepsList());
+                    } else if (ruleChild.hasScenario()) {
+                        collectScenario(ruleChild.getScenario());
+                    }
+                }
+            }
+        }
+    }
+
+    private void collectScenario(Feature.Scenario scenario) {
+        lines.put(scenario.getId(), scenario.getLocation().getLine());
+        keywords.put(scenario.getId(), scenario.getKeyword());
+        collectSteps(scenario.getStepsList());
+        for (Examples examples : scenario.getExamplesList()) {
+            for (TableRow row : examples.getTableBodyList()) {
+                lines.put(row.getId(), row.getLocation().getLine());
+            }
+        }
+    }
+
+    private void collectSteps(List<Step> steps) {
+        for (Step step : steps) {
+            lines.put(step.getId(), step.getLocation().getLine());
+            keywords.put(step.getId(), step.getKeyword());
+        }
+    }
+
+    private static String table(PickleStepArgument argument, int line) {
+        StringBuilder table = new StringBuilder("CompiledScenario.table(").append(line);
+        for (PickleStepArgument.PickleTable.PickleTableRow row : argument.getDataTable().getRowsList()) {
+            table.append(", new String[] {");
+            table.append(row.getCellsList().stream().map(cell -> literal(cell.getValue())).collect(Collectors.joining(", ")));
+            table.append("}");
+        }
+        return table.append(")").toString();
+    }
+
+    private static String literal(Object value, String location) {
+        if (value == null) {
+            return "null";
+        } else if (value instanceof String) {
+            return literal((String) value);
+        } else if (value instanceof Integer || value instanceof Boolean) {
+            return value.toString();
+        } else if (value instanceof Long) {
+            return value + "L";
+        } else if (value instanceof Short) {
+            return "(short) " + value;
+        } else if (value instanceof Byte) {
+            return "(byte) " + value;
+        } else if (value instanceof Double) {
+            return value + "d";
+        } else if (value instanceof Float) {
+            return value + "f";
+        } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+            return String.format("new %s(%s)", value.getClass().getName(), literal(value.toString()));
+        }
+        throw new RuntimeException(String.format("Step %s: cannot write the %s argument %s as Java",
+                location, value.getClass().getName(), value));
+    }
+
+    /**
+     * @param value text
+     * @return the Java string literal of the text, non-ASCII characters escaped
+     */
+    public static String literal(String value) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"': literal.append("\\\""); break;
+                case '\\': literal.append("\\\\"); break;
+                case '\n': literal.append("\\n"); break;
+                case '\r': literal.append("\\r"); break;
+                case '\t': literal.append("\\t"); break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        literal.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        literal.append(c);
+                    }
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    private static String javadoc(String text) {
+        return text.replace("*/", "* /");
+    }
+
+    private static String codeLocation(Method method) {
+        return method.getDeclaringClass().getName() + "." + method.getName() + "("
+                + Arrays.stream(method.getParameterTypes()).map(Class::getTypeName).collect(Collectors.joining(",")) + ")";
+    }
+
+    private static String className(String fileName) {
+        String base = fileName.endsWith(".feature") ? fileName.substring(0, fileName.length() - ".feature".length()) : fileName;
+        return identifier(base, true) + "Feature";
+    }
+
+    private static String methodName(String scenarioName) {
+        String name = identifier(scenarioName, false);
+        return name.isEmpty() ? "scenario" : name;
+    }
+
+    /**
+     * Camel-cases text into a Java identifier, dropping everything but letters
+     * and digits, e.g. "Verify the API" into "verifyTheAPI".
+     *
+     * @param text scenario or file name
+     * @param capitalize true for a class name, false for a method name
+     * @return the identifier, prefixed with '_' when it would start with a digit;
+     *         empty when the text has no letters or digits
+     */
+    public static String identifier(String text, boolean capitalize) {
+        StringBuilder identifier = new StringBuilder();
+        boolean upper = capitalize;
+        for (char c : text.toCharArray()) {
+            if (!Character.isLetterOrDigit(c)) {
+                upper = identifier.length() > 0 || capitalize;
+                continue;
+            }
+            if (identifier.length() == 0 && Character.isDigit(c)) {
+                identifier.append('_');
+            }
+            identifier.append(upper ? Character.toUpperCase(c) : identifier.length() == 0 ? Character.toLowerCase(c) : c);
+            upper = false;
+        }
+        return identifier.toString();
+    }
+
+    private static void compile(List<File> sources, File classes) {
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        if (javac == null) {
+            throw new RuntimeException("No Java compiler available; run the code generation on a JDK");
+        }
+        List<String> arguments = new ArrayList<>(Arrays.asList(
+                "-d", classes.getPath(),
+                "-classpath", System.getProperty("java.class.path"),
+                "-encoding", "UTF-8",
+                "-proc:none",
+                "-source", "1.8", "-target", "1.8", "-nowarn"));
+        for (File source : sources) {
+            arguments.add(source.getPath());
+        }
+        if (javac.run(null, null, null, arguments.toArray(new String[0])) != 0) {
+            throw new RuntimeException("Could not compile the generated feature classes; see the compiler output above");
+        }
+    }
+
+    private static void writeSuite(List<File> generated, File suite, int threads) throws IOException {
+        StringBuilder xml = new StringBuilder();
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+           .append("<!DOCTYPE suite SYSTEM \"http://testng.org/testng-1.0.dtd\">\n")
+           .append("<!-- Generated by FeatureCompiler; do not edit -->\n")
+           .append("<suite name=\"Compiled Features\" parallel=\"methods\" thread-count=\"").append(threads).append("\">\n")
+           .append("    <listeners>\n")
+           .append("        <listener class-name=\"").append(CompiledFeature.Planner.class.getName()).append("\"/>\n")
+           .append("    </listeners>\n")
+           .append("    <test verbose=\"1\" name=\"Compiled Features\">\n")
+           .append("        <classes>\n");
+        for (File file : generated) {
+            String name = file.getName().substring(0, file.getName().length() - ".java".length());
+            xml.append("            <class name=\"").append(PACKAGE).append('.').append(name).append("\"/>\n");
+        }
+        xml.append("        </classes>\n")
+           .append("    </test>\n")
+           .append("</suite>\n");
+        Files.write(suite.toPath(), xml.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
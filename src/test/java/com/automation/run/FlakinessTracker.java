@@ -0,0 +1,226 @@
+package com.automation.run;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import io.cucumber.testng.PickleWrapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.automation.Utilities.PathManager;
+import com.automation.utils.UtilProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Pass/fail/retry history per scenario across runs, and the quarantine
+ * derived from it.
+ *
+ * Every run of a scenario adds one outcome to its history (flaky.file, by
+ * default test-output/history/flakiness.json): P passed, R passed only after
+ * a retry, F failed every attempt. The last flaky.window outcomes are kept.
+ *
+ * The flake score is the share of runs that were retried or flipped between
+ * passing and failing compared to the run before. A scenario that always
+ * fails scores low: it is broken, not flaky, and stays in the main lane.
+ * Scenarios with at least flaky.minRuns runs and a score of flaky.threshold or
+ * more are quarantined. The main runners leave them out and they run in the
+ * non-blocking quarantine suite instead (see {@link QuarantineLane}). There
+ * they keep adding outcomes, so they return once they are stable again.
+ *
+ * Scores come from the history as it was when the run started, so every lane
+ * agrees on the quarantine during a run.
+ */
+public class FlakinessTracker {
+
+    private static final Logger logger = LogManager.getLogger(FlakinessTracker.class);
+
+    public static final char PASSED = 'P';
+    public static final char RETRIED = 'R';
+    public static final char FAILED = 'F';
+
+    private static final String DEFAULT_FILE = "test-output/history/flakiness.json";
+
+    private static final FlakinessTracker instance = new FlakinessTracker();
+
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final Map<String, String> previous;
+    // Outcomes of this run, appended to the file on save
+    private final Map<String, StringBuilder> recorded = new ConcurrentHashMap<>();
+    private final File file;
+    private final int window;
+    private final int minRuns;
+    private final double threshold;
+    private final boolean enabled;
+
+    private FlakinessTracker() {
+        this(new File(PathManager.getAbsolutePath(UtilProperties.getInstance().getProperty("flaky.file", DEFAULT_FILE))),
+                UtilProperties.getInstance().getInteger("flaky.window", 20),
+                UtilProperties.getInstance().getInteger("flaky.minRuns", 5),
+                Double.parseDouble(UtilProperties.getInstance().getProperty("flaky.threshold", "0.3")),
+                Boolean.parseBoolean(UtilProperties.getInstance().getProperty("flaky.quarantine", "true")));
+    }
+
+    /**
+     * A tracker of another history file than the configured one, e.g. in tests.
+     *
+     * @param file history file, read now
+     * @param window outcomes kept per scenario
+     * @param minRuns runs a scenario needs before it can be quarantined
+     * @param threshold flake score from which a scenario is quarantined
+     * @param enabled false to quarantine nothing
+     */
+    public FlakinessTracker(File file, int window, int minRuns, double threshold, boolean enabled) {
+        this.file = file;
+        this.window = window;
+        this.minRuns = minRuns;
+        this.threshold = threshold;
+        this.enabled = enabled;
+        previous = read();
+    }
+
+    public static FlakinessTracker getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param key history key of the scenario, see {@link ScenarioHistory#key}
+     * @param outcome {@link #PASSED}, {@link #RETRIED} or {@link #FAILED}
+     */
+    public void record(String key, char outcome) {
+        StringBuilder outcomes = recorded.computeIfAbsent(key, k -> new StringBuilder());
+        synchronized (outcomes) {
+            outcomes.append(outcome);
+        }
+    }
+
+    /**
+     * @param key history key of the scenario
+     * @return flake score of the scenario at the start of this run
+     */
+    public double score(String key) {
+        return scoreOf(previous.get(key));
+    }
+
+    /**
+     * @param outcomes outcomes of a scenario, oldest first
+     * @return share of the runs that were retried or flipped between passing
+     *         and failing, from 0 to 1
+     */
+    public static double scoreOf(String outcomes) {
+        if (outcomes == null || outcomes.isEmpty()) {
+            return 0;
+        }
+        int flaky = 0;
+        for (int i = 0; i < outcomes.length(); i++) {
+            char outcome = outcomes.charAt(i);
+            boolean flipped = i > 0 && (outcome == FAILED) != (outcomes.charAt(i - 1) == FAILED);
+            if (outcome == RETRIED || flipped) {
+                flaky++;
+            }
+        }
+        return (double) flaky / outcomes.length();
+    }
+
+    /**
+     * @param key history key of the scenario
+     * @return whether the scenario runs in the quarantine lane
+     */
+    public boolean isQuarantined(String key) {
+        String outcomes = previous.get(key);
+        return enabled && outcomes != null && outcomes.length() >= minRuns && scoreOf(outcomes) >= threshold;
+    }
+
+    /**
+     * @return the quarantined scenarios with their flake scores, for the report
+     */
+    public List<String> describeQuarantine() {
+        List<String> quarantined = new ArrayList<>();
+        for (String key : previous.keySet()) {
+            if (isQuarantined(key)) {
+                quarantined.add(String.format("%s (score %.2f)", key, score(key)));
+            }
+        }
+        return quarantined;
+    }
+
+    /**
+     * @param scenarios TestNG rows of {PickleWrapper, FeatureWrapper}
+     * @param quarantined true to keep the quarantined rows, false to drop them
+     * @return the matching rows in their original order
+     */
+    public Object[][] filter(Object[][] scenarios, boolean quarantined) {
+        return filter(Arrays.asList(scenarios), row -> ScenarioHistory.key(((PickleWrapper) row[0]).getPickle()), quarantined)
+                .toArray(new Object[0][]);
+    }
+
+    /**
+     * @param scenarios scenarios in any form, e.g. TestNG methods
+     * @param keyOf history key of a scenario
+     * @param quarantined true to keep the quarantined scenarios, false to drop them
+     * @return the matching scenarios in their original order
+     */
+    public <T> List<T> filter(List<T> scenarios, Function<T, String> keyOf, boolean quarantined) {
+        List<T> rows = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (T row : scenarios) {
+            String key = keyOf.apply(row);
+            if (isQuarantined(key) == quarantined) {
+                rows.add(row);
+            } else {
+                names.add(String.format("%s (score %.2f)", key, score(key)));
+            }
+        }
+        if (!quarantined && !names.isEmpty()) {
+            logger.info("Left {} quarantined scenarios to the quarantine lane: {}", names.size(), String.join(", ", names));
+        }
+        return rows;
+    }
+
+    /**
+     * Appends this run's outcomes to the history file. The file is locked and
+     * re-read first, as several runners and grid workers save into it.
+     */
+    public synchronized void save() {
+        if (recorded.isEmpty()) {
+            return;
+        }
+        PathManager.ensureDirectoryExists(file.getParent());
+        try (RandomAccessFile lockFile = new RandomAccessFile(file.getPath() + ".lock", "rw");
+             FileLock lock = lockFile.getChannel().lock()) {
+            Map<String, String> history = read();
+            for (Map.Entry<String, StringBuilder> entry : recorded.entrySet()) {
+                String outcomes = history.getOrDefault(entry.getKey(), "") + entry.getValue();
+                history.put(entry.getKey(), outcomes.substring(Math.max(0, outcomes.length() - window)));
+            }
+            mapper.writeValue(file, history);
+            recorded.clear();
+        } catch (IOException e) {
+            logger.warn("Could not save the flakiness history to {}", file, e);
+        }
+    }
+
+    private Map<String, String> read() {
+        if (!file.isFile() || file.length() == 0) {
+            return new TreeMap<>();
+        }
+        try {
+            return mapper.readValue(file, new TypeReference<TreeMap<String, String>>() {
+            });
+        } catch (IOException e) {
+            // A corrupt history only costs the quarantine, so start over rather than fail the run
+            logger.warn("Ignoring unreadable flakiness history {}", file, e);
+            return new TreeMap<>();
+        }
+    }
+}
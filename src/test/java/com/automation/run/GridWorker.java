@@ -0,0 +1,119 @@
+package com.automation.run;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.cucumber.testng.CucumberOptions;
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import io.cucumber.testng.TestNGCucumberRunner;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.SkipException;
+
+import com.automation.api.ApiConnectionPool;
+import com.automation.api.ApiMockServer;
+import com.automation.api.HttpJournal;
+import com.automation.manager.DriverManager;
+import com.automation.manager.DriverReaper;
+
+/**
+ * Worker JVM of the {@link LocalGridRunner}.
+ *
+ * Connects to the coordinator on grid.port, announces itself with
+ * {@code READY <id>} and then runs one scenario per {@code RUN <key>} line,
+ * answering each with a {@code DONE} line, until it receives {@code STOP}.
+ * Scenarios run in this JVM one at a time, so the usual singletons (driver,
+ * connection pool, mock server) are never shared between concurrent scenarios.
+ *
+ * The coordinator passes the tag filter (cucumber.filter.tags) and per-worker
+ * report locations as system properties. No report file is configured here,
+ * so that workers never write to the same file.
+ */
+@CucumberOptions(
+    features = "src/test/resources/features/",
+    glue = "com.automation.stepdef",
+    plugin = {
+        "com.aventstack.extentreports.cucumber.adapter.ExtentCucumberAdapter:",
+        "com.automation.run.ScenarioTracker",
+        "com.automation.run.IncrementalRun"
+    },
+    monochrome = true
+)
+public class GridWorker {
+
+    private static final Logger logger = LogManager.getLogger(GridWorker.class);
+
+    // Keeps a failure message on the single protocol line
+    private static final int MAX_MESSAGE_CHARS = 500;
+
+    public static void main(String[] args) throws IOException {
+        ScenarioRetry retry = new ScenarioRetry("Worker " + System.getProperty("grid.worker"));
+        int port = Integer.parseInt(System.getProperty("grid.port"));
+        String id = System.getProperty("grid.worker");
+
+        TestNGCucumberRunner runner = new TestNGCucumberRunner(GridWorker.class);
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true)) {
+            Map<String, Pickle> pickles = new HashMap<>();
+            for (Object[] scenario : runner.provideScenarios()) {
+                Pickle pickle = ((PickleWrapper) scenario[0]).getPickle();
+                pickles.put(ScenarioHistory.key(pickle), pickle);
+            }
+            out.println(LocalGridRunner.READY + LocalGridRunner.SEPARATOR + id);
+
+            String line;
+            while ((line = in.readLine()) != null && line.startsWith(LocalGridRunner.RUN)) {
+                String key = line.substring(LocalGridRunner.RUN.length() + 1);
+                out.println(run(runner, retry, pickles.get(key), key));
+            }
+        } finally {
+            retry.publish();
+            runner.finish();
+            DriverManager.getInstance().closeDriver();
+            DriverReaper.shutdown();
+            ApiMockServer.stop();
+            HttpJournal.getInstance().close();
+            ApiConnectionPool.getInstance().shutdown();
+        }
+        logger.info("Grid worker {} finished", id);
+        // Browser and pool threads must not keep the worker alive
+        System.exit(0);
+    }
+
+    private static String run(TestNGCucumberRunner runner, ScenarioRetry retry, Pickle pickle, String key) {
+        long start = System.nanoTime();
+        String status = LocalGridRunner.PASSED;
+        String message = "";
+        if (pickle == null) {
+            status = LocalGridRunner.FAILED;
+            message = "Scenario not found by the worker";
+        } else {
+            try {
+                retry.run(pickle, () -> runner.runScenario(pickle));
+            } catch (SkipException e) {
+                status = LocalGridRunner.SKIPPED;
+                message = String.valueOf(e.getMessage());
+            } catch (Throwable t) {
+                status = LocalGridRunner.FAILED;
+                message = t.toString();
+            }
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        message = message.replaceAll("\\s+", " ");
+        if (message.length() > MAX_MESSAGE_CHARS) {
+            message = message.substring(0, MAX_MESSAGE_CHARS) + "...";
+        }
+        return String.join(LocalGridRunner.SEPARATOR, LocalGridRunner.DONE, key, status, String.valueOf(millis), message);
+    }
+}
@@ -0,0 +1,385 @@
+package com.automation.run;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.DataTableArgument;
+import io.cucumber.plugin.event.DocStringArgument;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.Status;
+import io.cucumber.plugin.event.StepArgument;
+import io.cucumber.plugin.event.TestCase;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestCaseStarted;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.cucumber.plugin.event.TestStep;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.automation.Utilities.PathManager;
+import com.automation.utils.UtilProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Incremental runs: skips scenarios that passed recently and have not changed
+ * since.
+ *
+ * Every scenario gets a fingerprint over everything that can change its
+ * outcome:
+ * <ul>
+ *     <li>its text: name, tags, steps, data tables and doc strings</li>
+ *     <li>the bytecode of the step definition and hook classes it uses</li>
+ *     <li>the bytecode of all other project classes (pages, API client,
+ *     utilities), as one digest</li>
+ *     <li>the files under incremental.inputs (configuration, locators,
+ *     recordings, schemas, test data), which also holds the target URLs,
+ *     except the files named in incremental.exclude</li>
+ *     <li>configuration overrides and cucumber.* options given with -D</li>
+ * </ul>
+ * Passing fingerprints are kept in incremental.cache. With
+ * -Dincremental.enabled=true, the hook in ScenarioHooks skips a scenario whose
+ * fingerprint passed within incremental.maxAgeHours. It shows as skipped with
+ * a "Cached" note in the reports. -Dincremental.force=true runs everything
+ * again. Passes are recorded in either case, so the cache is warm when
+ * incremental runs are switched on.
+ *
+ * Register it in the plugin list of every runner.
+ */
+public class IncrementalRun implements ConcurrentEventListener {
+
+    private static final Logger logger = LogManager.getLogger(IncrementalRun.class);
+
+    private static final String DEFAULT_CACHE = "test-output/incremental/passed-scenarios.json";
+    private static final String DEFAULT_INPUTS = "src/test/resources/Configurations,src/test/resources/recordings,"
+            + "src/test/resources/schemas,src/test/resources/testdata";
+    // Rewritten with a timestamp by ConfigurationTests on every run
+    private static final String DEFAULT_EXCLUDE = "test-configuration.properties";
+    // Glue is fingerprinted per scenario; runners and unit tests do not affect a scenario
+    private static final List<String> PER_SCENARIO_PACKAGES = Arrays.asList(
+            "com/automation/stepdef/", "com/automation/run/", "com/automation/tests/");
+
+    private static final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    // Static: every runner has its own plugin instance and the hook has none
+    private static final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+    private static final Map<String, String> classDigests = new ConcurrentHashMap<>();
+    private static final Map<String, Entry> passed = new ConcurrentHashMap<>();
+    private static final Set<String> failed = ConcurrentHashMap.newKeySet();
+    private static volatile Map<String, Entry> cache;
+    private static volatile String supportDigest;
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestCaseStarted.class, this::onTestCaseStarted);
+        publisher.registerHandlerFor(TestCaseFinished.class, this::onTestCaseFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, event -> save());
+    }
+
+    /**
+     * @param scenarioId id of the running scenario, see ScenarioTracker
+     * @return why the scenario can be skipped, or null when it has to run
+     */
+    public static String cachedPass(String scenarioId) {
+        UtilProperties properties = UtilProperties.getInstance();
+        if (!Boolean.parseBoolean(properties.getProperty("incremental.enabled", "false"))
+                || Boolean.parseBoolean(properties.getProperty("incremental.force", "false"))) {
+            return null;
+        }
+        String fingerprint = fingerprints.get(scenarioId);
+        Entry entry = fingerprint == null ? null : loadCache().get(key(scenarioId));
+        long maxAge = TimeUnit.HOURS.toMillis(properties.getLong("incremental.maxAgeHours", 24));
+        if (entry == null || !fingerprint.equals(entry.getFingerprint())
+                || System.currentTimeMillis() - entry.getPassedAt() > maxAge) {
+            return null;
+        }
+        return String.format("Cached: passed on %s and nothing it depends on has changed since",
+                new SimpleDateFormat("yyyy-MM-dd HH:mm").format(new Date(entry.getPassedAt())));
+    }
+
+    private void onTestCaseStarted(TestCaseStarted event) {
+        TestCase testCase = event.getTestCase();
+        try {
+            fingerprints.put(ScenarioTracker.scenarioId(testCase), fingerprint(testCase));
+        } catch (IOException | RuntimeException e) {
+            // Without a fingerprint the scenario simply runs
+            logger.warn("Could not fingerprint {}", testCase.getName(), e);
+        }
+    }
+
+    private void onTestCaseFinished(TestCaseFinished event) {
+        String scenarioId = ScenarioTracker.scenarioId(event.getTestCase());
+        String fingerprint = fingerprints.remove(scenarioId);
+        Status status = event.getResult().getStatus();
+        if (status == Status.PASSED && fingerprint != null) {
+            Entry entry = new Entry();
+            entry.setFingerprint(fingerprint);
+            entry.setPassedAt(System.currentTimeMillis());
+            passed.put(key(scenarioId), entry);
+            failed.remove(key(scenarioId));
+        } else if (status != Status.SKIPPED) {
+            // Cached skips keep their entry; anything else must run next time
+            failed.add(key(scenarioId));
+            passed.remove(key(scenarioId));
+        }
+    }
+
+    private static String key(String scenarioId) {
+        int line = scenarioId.lastIndexOf(':');
+        return ScenarioHistory.key(URI.create(scenarioId.substring(0, line)),
+                Integer.parseInt(scenarioId.substring(line + 1)));
+    }
+
+    private static String fingerprint(TestCase testCase) throws IOException {
+        MessageDigest digest = sha256();
+        update(digest, testCase.getKeyword() + " " + testCase.getName());
+        update(digest, String.join(" ", testCase.getTags()));
+        Set<String> glue = new TreeSet<>();
+        for (TestStep step : testCase.getTestSteps()) {
+            if (step instanceof PickleStepTestStep) {
+                PickleStepTestStep pickleStep = (PickleStepTestStep) step;
+                update(digest, pickleStep.getStep().getKeyword() + pickleStep.getStep().getText());
+                update(digest, argument(pickleStep.getStep().getArgument()));
+            }
+            String location = step.getCodeLocation();
+            if (location != null) {
+                update(digest, location);
+                glue.add(declaringClass(location));
+            }
+        }
+        for (String className : glue) {
+            update(digest, className + "=" + classDigest(className));
+        }
+        update(digest, supportDigest());
+        return hex(digest.digest());
+    }
+
+    /**
+     * @param location code location such as com.automation.stepdef.StepDef.login(java.lang.String)
+     * @return the class name part
+     */
+    private static String declaringClass(String location) {
+        int parameters = location.indexOf('(');
+        String method = parameters < 0 ? location : location.substring(0, parameters);
+        return method.substring(0, method.lastIndexOf('.'));
+    }
+
+    private static String argument(StepArgument argument) {
+        if (argument instanceof DataTableArgument) {
+            return ((DataTableArgument) argument).cells().toString();
+        }
+        if (argument instanceof DocStringArgument) {
+            DocStringArgument docString = (DocStringArgument) argument;
+            return docString.getMediaType() + "\n" + docString.getContent();
+        }
+        return "";
+    }
+
+    private static String classDigest(String className) {
+        return classDigests.computeIfAbsent(className, name -> {
+            try (InputStream in = IncrementalRun.class.getClassLoader()
+                    .getResourceAsStream(name.replace('.', '/') + ".class")) {
+                if (in == null) {
+                    return "missing";
+                }
+                MessageDigest digest = sha256();
+                byte[] buffer = new byte[8192];
+                for (int read = in.read(buffer); read > 0; read = in.read(buffer)) {
+                    digest.update(buffer, 0, read);
+                }
+                return hex(digest.digest());
+            } catch (IOException e) {
+                throw new RuntimeException(String.format("Could not read the bytecode of %s", name), e);
+            }
+        });
+    }
+
+    /**
+     * Digest of what every scenario depends on: project classes outside the
+     * glue, input files and -D overrides. Computed once per JVM.
+     */
+    private static String supportDigest() throws IOException {
+        if (supportDigest == null) {
+            synchronized (IncrementalRun.class) {
+                if (supportDigest == null) {
+                    MessageDigest digest = sha256();
+                    for (Class<?> anchor : Arrays.asList(UtilProperties.class, IncrementalRun.class)) {
+                        digestTree(digest, codeLocation(anchor), true, Collections.emptySet());
+                    }
+                    UtilProperties properties = UtilProperties.getInstance();
+                    Set<String> excluded = new HashSet<>();
+                    for (String name : properties.getProperty("incremental.exclude", DEFAULT_EXCLUDE).split(",")) {
+                        excluded.add(name.trim());
+                    }
+                    for (String input : properties.getProperty("incremental.inputs", DEFAULT_INPUTS).split(",")) {
+                        digestTree(digest, Paths.get(PathManager.getAbsolutePath(input.trim())), false, excluded);
+                    }
+                    for (String name : new TreeSet<>(System.getProperties().stringPropertyNames())) {
+                        if (name.startsWith("incremental.")) {
+                            continue;
+                        }
+                        if (name.startsWith("cucumber.") || properties.getProperty(name) != null) {
+                            update(digest, name + "=" + System.getProperty(name));
+                        }
+                    }
+                    supportDigest = hex(digest.digest());
+                }
+            }
+        }
+        return supportDigest;
+    }
+
+    private static void digestTree(MessageDigest digest, Path root, boolean classesOnly, Set<String> excluded)
+            throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(root)) {
+            files = paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            String relative = root.relativize(file).toString().replace(File.separatorChar, '/');
+            if (classesOnly && (!relative.endsWith(".class") || PER_SCENARIO_PACKAGES.stream().anyMatch(relative::startsWith))) {
+                continue;
+            }
+            if (excluded.contains(file.getFileName().toString())) {
+                continue;
+            }
+            update(digest, relative);
+            digest.update(Files.readAllBytes(file));
+        }
+    }
+
+    private static Path codeLocation(Class<?> anchor) {
+        try {
+            return Paths.get(anchor.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new RuntimeException(String.format("Unexpected code location of %s", anchor.getName()), e);
+        }
+    }
+
+    private static Map<String, Entry> loadCache() {
+        if (cache == null) {
+            synchronized (IncrementalRun.class) {
+                if (cache == null) {
+                    cache = read(cacheFile());
+                }
+            }
+        }
+        return cache;
+    }
+
+    private static Map<String, Entry> read(File file) {
+        if (!file.isFile() || file.length() == 0) {
+            return new TreeMap<>();
+        }
+        try {
+            return mapper.readValue(file, new TypeReference<TreeMap<String, Entry>>() {
+            });
+        } catch (IOException e) {
+            // A corrupt cache only costs a full run
+            logger.warn("Ignoring unreadable incremental cache {}", file, e);
+            return new TreeMap<>();
+        }
+    }
+
+    /**
+     * Merges this run's passes and failures into the cache file. The file is
+     * locked and re-read first, as grid workers save into it concurrently.
+     */
+    private static synchronized void save() {
+        if (passed.isEmpty() && failed.isEmpty()) {
+            return;
+        }
+        File file = cacheFile();
+        PathManager.ensureDirectoryExists(file.getParent());
+        try (RandomAccessFile lockFile = new RandomAccessFile(file.getPath() + ".lock", "rw");
+             FileLock lock = lockFile.getChannel().lock()) {
+            Map<String, Entry> entries = read(file);
+            entries.keySet().removeAll(failed);
+            entries.putAll(passed);
+            mapper.writeValue(file, entries);
+            passed.clear();
+            failed.clear();
+        } catch (IOException e) {
+            logger.warn("Could not save the incremental cache to {}", file, e);
+        }
+    }
+
+    private static File cacheFile() {
+        return new File(PathManager.getAbsolutePath(UtilProperties.getInstance().getProperty("incremental.cache", DEFAULT_CACHE)));
+    }
+
+    private static void update(MessageDigest digest, String text) {
+        digest.update(text.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Cached pass of one scenario.
+     */
+    public static class Entry {
+        private String fingerprint;
+        private long passedAt;
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public void setFingerprint(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        public long getPassedAt() {
+            return passedAt;
+        }
+
+        public void setPassedAt(long passedAt) {
+            this.passedAt = passedAt;
+        }
+    }
+}
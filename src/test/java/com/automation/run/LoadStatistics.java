@@ -0,0 +1,88 @@
+package com.automation.run;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.Status;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestStepFinished;
+
+/**
+ * Cucumber plugin that feeds step and scenario durations into latency
+ * histograms for {@link LoadTests}.
+ *
+ * The statistics are static because Cucumber creates the plugin itself; the
+ * load runner resets them before a run and reads them afterwards.
+ */
+public class LoadStatistics implements ConcurrentEventListener {
+
+    private static final Map<String, Entry> steps = new ConcurrentSkipListMap<>();
+    private static final Map<String, Entry> scenarios = new ConcurrentHashMap<>();
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestStepFinished.class, this::onTestStepFinished);
+        publisher.registerHandlerFor(TestCaseFinished.class, this::onTestCaseFinished);
+    }
+
+    public static void reset() {
+        steps.clear();
+        scenarios.clear();
+    }
+
+    /**
+     * @return statistics per step text, sorted by step text
+     */
+    public static Map<String, Entry> getSteps() {
+        return steps;
+    }
+
+    /**
+     * @return statistics per scenario name
+     */
+    public static Map<String, Entry> getScenarios() {
+        return scenarios;
+    }
+
+    private void onTestStepFinished(TestStepFinished event) {
+        if (event.getTestStep() instanceof PickleStepTestStep) {
+            String text = ((PickleStepTestStep) event.getTestStep()).getStep().getText();
+            steps.computeIfAbsent(text, key -> new Entry())
+                    .record(event.getResult().getDuration().toNanos(), event.getResult().getStatus());
+        }
+    }
+
+    private void onTestCaseFinished(TestCaseFinished event) {
+        scenarios.computeIfAbsent(event.getTestCase().getName(), key -> new Entry())
+                .record(event.getResult().getDuration().toNanos(), event.getResult().getStatus());
+    }
+
+    /**
+     * Latency histogram plus failure count for one step or scenario.
+     */
+    public static class Entry {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final AtomicLong failures = new AtomicLong();
+
+        void record(long nanos, Status status) {
+            histogram.record(nanos);
+            // Skipped steps after a failure are fine; failed, pending and undefined are not
+            if (status != Status.PASSED && status != Status.SKIPPED) {
+                failures.incrementAndGet();
+            }
+        }
+
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+
+        public long getFailures() {
+            return failures.get();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.automation.run;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import io.cucumber.testng.CucumberOptions;
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import io.cucumber.testng.TestNGCucumberRunner;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.annotations.AfterSuite;
+import org.testng.annotations.Test;
+
+import com.automation.api.ApiConnectionPool;
+import com.automation.api.ApiMockServer;
+import com.automation.api.HttpJournal;
+import com.automation.utils.UtilProperties;
+
+/**
+ * Load-test runner that replays @API scenarios as virtual-user scripts.
+ *
+ * Not part of testng.xml; run it on its own, e.g. against the local replay
+ * server:
+ * <pre>
+ * mvn test -Dtest=LoadTests -Dapi.mode=replay -Dload.users=20 -Dload.durationSeconds=60
+ * </pre>
+ *
+ * Settings (Load.properties or -D on the command line):
+ * - load.users: number of virtual users (threads)
+ * - load.durationSeconds: how long to run, unless load.iterations is set
+ * - load.iterations: total scenario runs across all users (0 = use duration)
+ * - load.arrivalRate: scenario starts per second across all users (0 = as fast as the users allow)
+ * - load.scenarios: regular expression selecting scenarios by name
+ *
+ * Latency percentiles and throughput per step and per scenario are written to
+ * Reports/LoadTestSummary.txt, next to the Extent report.
+ */
+@CucumberOptions(
+    features = "src/test/resources/features/",
+    glue = "com.automation.stepdef",
+    plugin = {
+        "com.automation.run.ScenarioTracker",
+        "com.automation.run.LoadStatistics"
+    },
+    tags = "@API",
+    monochrome = true
+)
+public class LoadTests {
+    private final Logger logger = LogManager.getLogger(LoadTests.class);
+
+    private static final String SUMMARY_FILE = "Reports/LoadTestSummary.txt";
+
+    @Test
+    public void runLoadProfile() throws Exception {
+        UtilProperties properties = UtilProperties.getInstance();
+        int users = properties.getInteger("load.users", 10);
+        long durationNanos = TimeUnit.SECONDS.toNanos(properties.getLong("load.durationSeconds", 30));
+        long iterations = properties.getLong("load.iterations", 0);
+        double arrivalRate = Double.parseDouble(properties.getProperty("load.arrivalRate", "0"));
+        Pattern selection = Pattern.compile(properties.getProperty("load.scenarios", ".*"));
+
+        TestNGCucumberRunner runner = new TestNGCucumberRunner(getClass());
+        try {
+            List<Pickle> pickles = new ArrayList<>();
+            for (Object[] scenario : runner.provideScenarios()) {
+                Pickle pickle = ((PickleWrapper) scenario[0]).getPickle();
+                if (selection.matcher(pickle.getName()).matches()) {
+                    pickles.add(pickle);
+                }
+            }
+            if (pickles.isEmpty()) {
+                throw new RuntimeException(String.format("No @API scenarios match load.scenarios '%s'", selection));
+            }
+
+            logger.info("Starting load run: {} users, {} scenarios, {}, arrival rate {}",
+                    users, pickles.size(),
+                    iterations > 0 ? iterations + " iterations" : TimeUnit.NANOSECONDS.toSeconds(durationNanos) + " s",
+                    arrivalRate > 0 ? arrivalRate + "/s" : "unbounded");
+
+            LoadStatistics.reset();
+            long intervalNanos = arrivalRate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / arrivalRate) : 0;
+            long start = System.nanoTime();
+            long deadline = start + durationNanos;
+            AtomicLong started = new AtomicLong();
+            AtomicLong failed = new AtomicLong();
+            AtomicInteger threadIndex = new AtomicInteger();
+
+            ExecutorService virtualUsers = Executors.newFixedThreadPool(users, runnable -> {
+                Thread thread = new Thread(runnable, "load-vu-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            for (int i = 0; i < users; i++) {
+                virtualUsers.submit(() -> {
+                    while (true) {
+                        long n = started.getAndIncrement();
+                        if (iterations > 0 ? n >= iterations : System.nanoTime() >= deadline) {
+                            return null;
+                        }
+                        if (intervalNanos > 0) {
+                            // Fixed schedule across all users, so a slow response delays its
+                            // own user but not the overall arrival rate
+                            long slot = start + n * intervalNanos;
+                            if (iterations <= 0 && slot >= deadline) {
+                                return null;
+                            }
+                            long wait = slot - System.nanoTime();
+                            if (wait > 0) {
+                                TimeUnit.NANOSECONDS.sleep(wait);
+                            }
+                        }
+                        try {
+                            runner.runScenario(pickles.get((int) (n % pickles.size())));
+                        } catch (Throwable t) {
+                            failed.incrementAndGet();
+                            logger.debug("Scenario failed under load", t);
+                        }
+                    }
+                });
+            }
+            virtualUsers.shutdown();
+            if (!virtualUsers.awaitTermination(Math.max(durationNanos, TimeUnit.HOURS.toNanos(1)), TimeUnit.NANOSECONDS)) {
+                virtualUsers.shutdownNow();
+            }
+            long elapsed = System.nanoTime() - start;
+
+            String summary = summarize(elapsed, users, failed.get());
+            logger.info("Load run finished{}{}", System.lineSeparator(), summary);
+            writeSummary(summary);
+        } finally {
+            runner.finish();
+        }
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void afterSuite() {
+        ApiMockServer.stop();
+        HttpJournal.getInstance().close();
+        ApiConnectionPool.getInstance().shutdown();
+    }
+
+    private String summarize(long elapsedNanos, int users, long failedScenarios) {
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("Load run: %d users, %.1f s, %d failed scenarios%n%n", users, seconds, failedScenarios));
+        appendTable(summary, "Scenario", LoadStatistics.getScenarios(), seconds);
+        summary.append(String.format("%n"));
+        appendTable(summary, "Step", LoadStatistics.getSteps(), seconds);
+        return summary.toString();
+    }
+
+    private void appendTable(StringBuilder summary, String title, Map<String, LoadStatistics.Entry> entries, double seconds) {
+        summary.append(String.format("%-50s %8s %6s %8s %9s %9s %9s %9s %9s%n",
+                title, "count", "fail", "per sec", "mean ms", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (Map.Entry<String, LoadStatistics.Entry> entry : entries.entrySet()) {
+            LatencyHistogram histogram = entry.getValue().getHistogram();
+            summary.append(String.format("%-50s %8d %6d %8.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    abbreviate(entry.getKey()), histogram.getCount(), entry.getValue().getFailures(),
+                    histogram.getCount() / seconds, histogram.getMeanMillis(),
+                    histogram.getPercentileMillis(50), histogram.getPercentileMillis(95),
+                    histogram.getPercentileMillis(99), histogram.getMaxMillis()));
+        }
+    }
+
+    private static String abbreviate(String text) {
+        return text.length() <= 50 ? text : text.substring(0, 47) + "...";
+    }
+
+    private void writeSummary(String summary) throws IOException {
+        File file = new File(SUMMARY_FILE);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), summary.getBytes(StandardCharsets.UTF_8));
+        logger.info("Load test summary written to {}", file.getAbsolutePath());
+    }
+}
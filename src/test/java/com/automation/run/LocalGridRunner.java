@@ -0,0 +1,457 @@
+package com.automation.run;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import io.cucumber.testng.CucumberOptions;
+import io.cucumber.testng.PickleWrapper;
+import io.cucumber.testng.TestNGCucumberRunner;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.annotations.Test;
+
+import com.automation.Utilities.PathManager;
+import com.automation.api.ApiMockServer;
+import com.automation.utils.UtilProperties;
+
+/**
+ * Runs scenarios on several local worker JVMs ({@link GridWorker}) instead of
+ * threads in one JVM.
+ *
+ * Not part of testng.xml; run it on its own:
+ * <pre>
+ * mvn test -Dtest=LocalGridRunner -Dgrid.workers=4 -Dgrid.tags=@API
+ * </pre>
+ *
+ * The coordinator keeps one queue of scenarios, longest first (see
+ * {@link ScenarioHistory}), and every idle worker takes the next one, so a
+ * worker stuck on a slow scenario never holds up work that others could do.
+ * Workers talk to the coordinator over a loopback socket with a tab-separated
+ * line protocol: READY, RUN, DONE and STOP. When a worker dies or exceeds
+ * grid.scenarioTimeoutSeconds, its scenario goes back to the front of the
+ * queue (up to grid.maxAttempts runs) and a new worker is started in its place.
+ *
+ * Each worker writes its Extent archive, Cucumber JSON and HTTP journal under
+ * grid.output/worker-N. At the end these are merged with {@link ReportMerger}
+ * into grid.output/report, and grid.output/summary.txt lists every scenario
+ * with its worker, attempts and duration. Scenarios finished by a worker that
+ * later crashed appear in the summary but not in the merged report, as the
+ * worker never wrote its report files.
+ *
+ * Other settings (Execution.properties): grid.workers, grid.tags,
+ * grid.workerJvmArgs. Configuration overrides given with -D, and cucumber.*
+ * properties, are passed on to the workers. -Dshard=i/K still applies, so
+ * every CI machine can run its own shard on a local grid. Quarantined flaky
+ * scenarios are left out as in the main runners (see {@link FlakinessTracker});
+ * quarantine.xml runs them.
+ */
+public class LocalGridRunner {
+    private final Logger logger = LogManager.getLogger(LocalGridRunner.class);
+
+    // Line protocol shared with GridWorker
+    static final String SEPARATOR = "\t";
+    static final String READY = "READY";
+    static final String RUN = "RUN";
+    static final String DONE = "DONE";
+    static final String STOP = "STOP";
+    static final String PASSED = "PASSED";
+    static final String FAILED = "FAILED";
+    static final String SKIPPED = "SKIPPED";
+    static final String CRASHED = "CRASHED";
+
+    // How long an idle worker waits before checking again whether the run is over
+    private static final long POLL_MILLIS = 200;
+
+    /**
+     * Discovers the scenarios to distribute. Plugins are left out, so the
+     * coordinator itself writes no reports.
+     */
+    @CucumberOptions(
+        features = "src/test/resources/features/",
+        glue = "com.automation.stepdef"
+    )
+    static class Discovery {
+    }
+
+    private final BlockingDeque<String> queue = new LinkedBlockingDeque<>();
+    private final Map<String, Result> results = new ConcurrentHashMap<>();
+    private final Map<String, Integer> attempts = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger workerIds = new AtomicInteger();
+    private final AtomicInteger liveWorkers = new AtomicInteger();
+    private final AtomicInteger replacements = new AtomicInteger();
+    private final List<Process> processes = new ArrayList<>();
+
+    private CountDownLatch finished;
+    private ServerSocket server;
+    private Path outputDir;
+    private int maxAttempts;
+    private int maxReplacements;
+    private long scenarioTimeoutMillis;
+    private long startTimeoutMillis;
+    private List<String> workerCommand;
+
+    @Test
+    public void runOnLocalGrid() throws Exception {
+        UtilProperties properties = UtilProperties.getInstance();
+        int workers = properties.getInteger("grid.workers", 2);
+        maxAttempts = properties.getInteger("grid.maxAttempts", 2);
+        maxReplacements = properties.getInteger("grid.maxReplacements", workers);
+        scenarioTimeoutMillis = TimeUnit.SECONDS.toMillis(properties.getLong("grid.scenarioTimeoutSeconds", 600));
+        startTimeoutMillis = TimeUnit.SECONDS.toMillis(properties.getLong("grid.startTimeoutSeconds", 60));
+        outputDir = Paths.get(PathManager.getAbsolutePath(properties.getProperty("grid.output", "test-output/grid")));
+        if (ApiMockServer.getMode().equals("record")) {
+            // Every worker would save its own recordings over the others
+            throw new RuntimeException("api.mode=record is not supported on the local grid, record in a single JVM");
+        }
+        if (System.getProperty("cucumber.filter.tags") == null) {
+            System.setProperty("cucumber.filter.tags", properties.getProperty("grid.tags", "@API"));
+        }
+
+        List<String> keys = discover();
+        if (keys.isEmpty()) {
+            throw new RuntimeException(String.format("No scenarios match %s", System.getProperty("cucumber.filter.tags")));
+        }
+        queue.addAll(keys);
+        finished = new CountDownLatch(keys.size());
+        deleteDirectory(outputDir);
+        Files.createDirectories(outputDir);
+
+        long start = System.nanoTime();
+        server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        workerCommand = workerCommand(properties);
+        Thread acceptor = new Thread(this::accept, "grid-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        logger.info("Running {} scenarios on {} worker JVMs", keys.size(), workers);
+        for (int i = 0; i < Math.min(workers, keys.size()); i++) {
+            startWorker();
+        }
+
+        while (!finished.await(1, TimeUnit.SECONDS)) {
+            if (liveWorkers.get() == 0) {
+                // Out of replacements: nobody is left to run what is still queued
+                for (String key = queue.poll(); key != null; key = queue.poll()) {
+                    complete(key, new Result(CRASHED, "-", 0, "No worker left to run the scenario"));
+                }
+            }
+        }
+        server.close();
+        awaitWorkers();
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        ScenarioHistory.getInstance().save();
+        writeSummary(keys, elapsed);
+        List<Path> workerDirs;
+        try (Stream<Path> dirs = Files.list(outputDir)) {
+            workerDirs = dirs.filter(dir -> dir.getFileName().toString().startsWith("worker-"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        new ReportMerger().merge(outputDir.resolve("report"), workerDirs);
+
+        List<String> failures = keys.stream()
+                .filter(key -> !PASSED.equals(results.get(key).status) && !SKIPPED.equals(results.get(key).status))
+                .map(key -> key + " " + results.get(key).status + ": " + results.get(key).message)
+                .collect(Collectors.toList());
+        if (!failures.isEmpty()) {
+            throw new AssertionError(String.format("%d of %d scenarios failed on the local grid:%n%s",
+                    failures.size(), keys.size(), String.join(System.lineSeparator(), failures)));
+        }
+    }
+
+    private List<String> discover() {
+        TestNGCucumberRunner runner = new TestNGCucumberRunner(Discovery.class);
+        Object[][] scenarios = ScenarioHistory.getInstance().longestFirst(
+                FlakinessTracker.getInstance().filter(ShardPlanner.select(runner.provideScenarios()), false));
+        List<String> keys = new ArrayList<>();
+        for (Object[] scenario : scenarios) {
+            keys.add(ScenarioHistory.key(((PickleWrapper) scenario[0]).getPickle()));
+        }
+        return keys;
+    }
+
+    /**
+     * Java command line shared by all workers, without the per-worker properties.
+     */
+    private List<String> workerCommand(UtilProperties properties) {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Dfile.encoding=UTF-8");
+        if (!System.getProperty("java.specification.version").startsWith("1.")) {
+            // Same as the jdk9+ profile: the Extent JSON archive needs it
+            command.add("--add-opens");
+            command.add("java.base/java.lang=ALL-UNNAMED");
+        }
+        String jvmArgs = properties.getProperty("grid.workerJvmArgs", "");
+        if (!jvmArgs.isEmpty()) {
+            command.addAll(Arrays.asList(jvmArgs.split("\\s+")));
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("cucumber.") || (properties.getProperty(name) != null && !name.startsWith("grid."))) {
+                command.add("-D" + name + "=" + System.getProperty(name));
+            }
+        }
+        command.add("-Dgrid.port=" + server.getLocalPort());
+        // Surefire runs tests from a manifest-only jar; this holds the real classpath
+        command.add("-cp");
+        command.add(System.getProperty("surefire.test.class.path", System.getProperty("java.class.path")));
+        return command;
+    }
+
+    private void startWorker() {
+        String id = String.valueOf(workerIds.incrementAndGet());
+        Path workerDir = outputDir.resolve("worker-" + id);
+        // Relative to the project, as PathManager expects
+        Path relativeDir = Paths.get(System.getProperty("user.dir")).relativize(workerDir);
+        List<String> command = new ArrayList<>(workerCommand);
+        int main = command.size() - 2;
+        command.add(main, "-Dgrid.worker=" + id);
+        command.add(main, "-Dcucumber.plugin=json:" + relativeDir.resolve("CucumberTestReport.json"));
+        command.add(main, "-Dbasefolder.name=" + relativeDir.resolve("SparkReport"));
+        command.add(main, "-Dapi.journal.dir=" + relativeDir.resolve("journal"));
+        // Durations are recorded by the coordinator; a worker copy must not overwrite them
+        command.add(main, "-Dhistory.file=" + relativeDir.resolve("scenario-durations.json"));
+        command.add(GridWorker.class.getName());
+
+        CompletableFuture<Connection> connection = new CompletableFuture<>();
+        connections.put(id, connection);
+        try {
+            Files.createDirectories(workerDir);
+            Process process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(workerDir.resolve("worker.log").toFile())
+                    .start();
+            synchronized (processes) {
+                processes.add(process);
+            }
+            liveWorkers.incrementAndGet();
+            Thread supervisor = new Thread(() -> supervise(id, process, connection), "grid-worker-" + id);
+            supervisor.setDaemon(true);
+            supervisor.start();
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not start grid worker %s", id), e);
+        }
+    }
+
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                BufferedReader in = reader(socket);
+                socket.setSoTimeout((int) startTimeoutMillis);
+                String[] hello = in.readLine().split(SEPARATOR);
+                CompletableFuture<Connection> connection = hello.length == 2 ? connections.remove(hello[1]) : null;
+                if (!READY.equals(hello[0]) || connection == null) {
+                    logger.warn("Ignoring unexpected grid connection: {}", String.join(" ", hello));
+                    socket.close();
+                } else {
+                    connection.complete(new Connection(socket, in));
+                }
+            } catch (SocketException e) {
+                // Server closed at the end of the run
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to accept a grid worker", e);
+            }
+        }
+    }
+
+    /**
+     * Feeds one worker from the queue until the run is over. Runs on its own
+     * thread per worker.
+     */
+    private void supervise(String id, Process process, CompletableFuture<Connection> connection) {
+        String current = null;
+        Socket socket = null;
+        try {
+            Connection established = awaitConnection(process, connection);
+            socket = established.socket;
+            BufferedReader in = established.in;
+            PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+            socket.setSoTimeout((int) scenarioTimeoutMillis);
+            while (finished.getCount() > 0) {
+                current = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (current == null) {
+                    // A crashed worker's scenario may still come back to the queue
+                    continue;
+                }
+                out.println(RUN + SEPARATOR + current);
+                String line = in.readLine();
+                if (line == null) {
+                    throw new IOException("Worker closed the connection");
+                }
+                String[] done = line.split(SEPARATOR, 5);
+                complete(done[1], new Result(done[2], id, Long.parseLong(done[3]), done.length > 4 ? done[4] : ""));
+                ScenarioHistory.getInstance().record(done[1], Long.parseLong(done[3]));
+                current = null;
+            }
+            out.println(STOP);
+            liveWorkers.decrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | ExecutionException | TimeoutException | RuntimeException e) {
+            process.destroyForcibly();
+            if (current == null && finished.getCount() == 0) {
+                // A replacement that came up after the last scenario finished
+                liveWorkers.decrementAndGet();
+                return;
+            }
+            String reason = e instanceof SocketTimeoutException
+                    ? String.format("timed out after %d s", TimeUnit.MILLISECONDS.toSeconds(scenarioTimeoutMillis))
+                    : e.toString();
+            logger.warn("Grid worker {} lost ({}), see {}", id, reason, outputDir.resolve("worker-" + id).resolve("worker.log"));
+            crashed(id, current, reason);
+        } finally {
+            closeQuietly(socket);
+        }
+    }
+
+    private Connection awaitConnection(Process process, CompletableFuture<Connection> connection)
+            throws IOException, ExecutionException, TimeoutException, InterruptedException {
+        long deadline = System.currentTimeMillis() + startTimeoutMillis;
+        while (true) {
+            try {
+                return connection.get(1, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                if (!process.isAlive()) {
+                    throw new IOException(String.format("Worker exited with code %d before connecting", process.exitValue()));
+                }
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Puts the scenario of a lost worker back on the queue, or gives up on it
+     * after grid.maxAttempts, and starts a replacement worker.
+     */
+    private void crashed(String id, String key, String reason) {
+        if (key != null) {
+            int attempt = attempts.merge(key, 1, Integer::sum);
+            if (attempt < maxAttempts) {
+                logger.info("Retrying {} on another worker (attempt {} of {})", key, attempt + 1, maxAttempts);
+                queue.addFirst(key);
+            } else {
+                complete(key, new Result(CRASHED, id, 0, "Worker " + reason));
+            }
+        }
+        if (finished.getCount() > 0 && replacements.incrementAndGet() <= maxReplacements) {
+            startWorker();
+        }
+        liveWorkers.decrementAndGet();
+    }
+
+    private void complete(String key, Result result) {
+        result.attempts = attempts.getOrDefault(key, 0) + 1;
+        if (results.putIfAbsent(key, result) == null) {
+            finished.countDown();
+        }
+    }
+
+    private void awaitWorkers() throws InterruptedException {
+        synchronized (processes) {
+            for (Process process : processes) {
+                if (!process.waitFor(startTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    process.destroyForcibly();
+                }
+            }
+        }
+    }
+
+    private void writeSummary(List<String> keys, long elapsedMillis) throws IOException {
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("Local grid: %d scenarios, %d workers started, %.1f s%n%n",
+                keys.size(), workerIds.get(), elapsedMillis / 1000.0));
+        summary.append(String.format("%-60s %-8s %6s %8s %9s  %s%n", "Scenario", "Status", "Worker", "Attempts", "ms", "Message"));
+        keys.stream().sorted(Comparator.naturalOrder()).forEach(key -> {
+            Result result = results.get(key);
+            summary.append(String.format("%-60s %-8s %6s %8d %9d  %s%n",
+                    key, result.status, result.worker, result.attempts, result.millis, result.message));
+        });
+        File file = outputDir.resolve("summary.txt").toFile();
+        Files.write(file.toPath(), summary.toString().getBytes(StandardCharsets.UTF_8));
+        logger.info("Local grid finished{}{}", System.lineSeparator(), summary);
+    }
+
+    private static BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private static void closeQuietly(Socket socket) {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Nothing left to do with this worker
+            }
+        }
+    }
+
+    private static void deleteDirectory(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static class Connection {
+        final Socket socket;
+        // Already used to read READY, so it may hold buffered input
+        final BufferedReader in;
+
+        Connection(Socket socket, BufferedReader in) {
+            this.socket = socket;
+            this.in = in;
+        }
+    }
+
+    private static class Result {
+        final String status;
+        final String worker;
+        final long millis;
+        final String message;
+        int attempts;
+
+        Result(String status, String worker, long millis, String message) {
+            this.status = status;
+            this.worker = worker;
+            this.millis = millis;
+            this.message = message;
+        }
+    }
+}
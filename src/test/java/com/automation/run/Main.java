@@ -2,13 +2,24 @@ package com.automation.run;
 
 import io.cucumber.testng.AbstractTestNGCucumberTests;
 import io.cucumber.testng.CucumberOptions;
+import io.cucumber.testng.FeatureWrapper;
+import io.cucumber.testng.PickleWrapper;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.testng.ITestContext;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterSuite;
+import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeSuite;
 import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
 
+import com.automation.api.ApiConnectionPool;
+import com.automation.api.ApiMockServer;
+import com.automation.api.HttpJournal;
+import com.automation.api.ResponseCache;
 import com.automation.manager.DriverManager;
+import com.automation.manager.DriverReaper;
 
 /**
  * Main test runner class for API tests.
@@ -37,6 +48,8 @@ import com.automation.manager.DriverManager;
     // Reporting plugins configuration
     plugin = {
         "com.aventstack.extentreports.cucumber.adapter.ExtentCucumberAdapter:",  // ExtentReports integration
+        "com.automation.run.ScenarioTracker",  // Publishes the running scenario/step to ExecutionContext
+        "com.automation.run.IncrementalRun",  // Remembers passing scenarios for incremental runs
         "pretty",  // Readable console output
         "html:target/cucumber-reports/cucumber-pretty",  // HTML reports
         "json:target/cucumber-reports/CucumberTestReport.json"  // JSON reports
@@ -55,16 +68,63 @@ public class Main extends AbstractTestNGCucumberTests {
     // WebDriver manager instance
     private DriverManager driverManager;
 
+    // Re-runs failed scenarios in this JVM (retry.count)
+    private final ScenarioRetry retry = new ScenarioRetry("API");
+
     /**
      * Provides test scenarios to TestNG for execution.
-     * Overridden to disable parallel execution and ensure sequential test runs.
+     * API scenarios run in parallel: each one gets its own ApiClient through
+     * dependency injection, so no request or response state is shared.
+     * They are queued longest-first based on the durations of earlier runs,
+     * after keeping only this machine's shard when -Dshard=i/K is set.
+     * Quarantined flaky scenarios are left to {@link QuarantinedApiTests}, and
+     * with mvn test -Pcodegen the compiled ones to codegen.xml.
      *
      * @return Array of test scenarios to be executed
      */
     @Override
-    @DataProvider(parallel = false)
+    @DataProvider(parallel = true)
     public Object[][] scenarios() {
-        return super.scenarios();
+        Object[][] scenarios = FeatureCompiler.withoutCompiled(super.scenarios());
+        return ScenarioHistory.getInstance().longestFirst(
+                FlakinessTracker.getInstance().filter(ShardPlanner.select(scenarios), false));
+    }
+
+    /**
+     * Logs how many API scenarios run concurrently: data-provider-thread-count
+     * of testng.xml, or -Ddataproviderthreadcount=N on the command line.
+     *
+     * @param context TestNG context of the running test
+     */
+    @BeforeClass(alwaysRun = true)
+    public void logParallelism(ITestContext context) {
+        logger.info("Running API scenarios on {} threads", context.getSuite().getXmlSuite().getDataProviderThreadCount());
+    }
+
+    /**
+     * Runs one scenario, retrying it in this JVM when it fails.
+     * Replaces surefire's rerunFailingTestsCount, which re-initializes the
+     * whole runner for a rerun.
+     *
+     * @param pickleWrapper  the scenario
+     * @param featureWrapper the feature it belongs to
+     */
+    @Override
+    @Test(groups = "cucumber", description = "Runs Cucumber Scenarios", dataProvider = "scenarios")
+    public void runScenario(PickleWrapper pickleWrapper, FeatureWrapper featureWrapper) {
+        retry.run(pickleWrapper.getPickle(), () -> super.runScenario(pickleWrapper, featureWrapper));
+    }
+
+    /**
+     * Publishes the retry counts and object construction times before Cucumber
+     * finishes the reports.
+     */
+    @Override
+    @AfterClass(alwaysRun = true)
+    public void tearDownClass() {
+        retry.publish();
+        ScopedObjectFactory.publish("API");
+        super.tearDownClass();
     }
 
     /**
@@ -94,7 +154,8 @@ public class Main extends AbstractTestNGCucumberTests {
      * This method is marked with @AfterSuite to ensure it runs once after all tests.
      * 
      * Important: This ensures that all browser instances are properly closed
-     * and system resources are released, even if tests fail.
+     * and system resources are released, even if tests fail. Browsers are quit
+     * in the background (DriverReaper); this waits until they are gone.
      */
     @AfterSuite
     public void afterSuite() {
@@ -102,6 +163,12 @@ public class Main extends AbstractTestNGCucumberTests {
         if (driverManager != null) {
             driverManager.closeDriver();
         }
+        DriverReaper.shutdown();
+        logger.info("API response cache: {} hits, {} misses",
+                ResponseCache.getInstance().getHits(), ResponseCache.getInstance().getMisses());
+        ApiMockServer.stop();
+        HttpJournal.getInstance().close();
+        ApiConnectionPool.getInstance().shutdown();
     }
 }
     
@@ -0,0 +1,359 @@
+package com.automation.run;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.cucumber.core.gherkin.DataTableArgument;
+import io.cucumber.core.gherkin.DocStringArgument;
+import io.cucumber.core.gherkin.Pickle;
+import io.cucumber.core.gherkin.Step;
+import io.cucumber.java.Scenario;
+import io.cucumber.plugin.event.Location;
+import io.cucumber.testng.PickleWrapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+
+import com.automation.Utilities.BrowserState;
+import com.automation.utils.UtilProperties;
+import com.aventstack.extentreports.service.ExtentService;
+
+/**
+ * Runs the leading steps that scenarios of a feature share (the Background,
+ * opening the site, logging in) once per group instead of once per scenario.
+ *
+ * {@link #plan(Object[][])} groups the scenarios of each feature that start
+ * with the same prefix.minSteps steps; the group's prefix is the longest run of
+ * leading steps all of them share. The first scenario of a group to run runs
+ * in full, and the @Web hooks capture the {@link BrowserState} once its prefix
+ * has passed. The others run without the prefix steps: the browser state is
+ * restored before their remaining steps instead. Until a snapshot exists, and
+ * for retries, scenarios run in full.
+ *
+ * Only the browser state is carried over, so features whose prefix steps also
+ * keep state in the step classes (ScenarioContext, page objects) or whose
+ * tag-specific hooks change what the prefix does are tagged @noPrefixReplay.
+ * Off unless prefix.replay=true.
+ */
+public class PrefixReplay {
+
+    private static final Logger logger = LogManager.getLogger(PrefixReplay.class);
+
+    public static final String OPT_OUT_TAG = "@noPrefixReplay";
+
+    // io.cucumber.testng.Pickle only wraps the pickle and has no public constructor
+    private static final Constructor<io.cucumber.testng.Pickle> WRAP;
+    private static final Method UNWRAP;
+
+    static {
+        try {
+            WRAP = io.cucumber.testng.Pickle.class.getDeclaredConstructor(Pickle.class);
+            WRAP.setAccessible(true);
+            UNWRAP = io.cucumber.testng.Pickle.class.getDeclaredMethod("getPickle");
+            UNWRAP.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new RuntimeException("Unsupported Cucumber version: cannot wrap a pickle for TestNG", e);
+        }
+    }
+
+    // Scenario running on this thread, read by the hooks
+    private static final ThreadLocal<Member> current = new ThreadLocal<>();
+
+    private final String name;
+    private final Map<String, Group> groups = new HashMap<>();
+    private final AtomicInteger replayed = new AtomicInteger();
+    private final AtomicInteger skippedSteps = new AtomicInteger();
+
+    /**
+     * A single run of a scenario.
+     */
+    public interface ScenarioRun {
+        void run(PickleWrapper scenario);
+    }
+
+    /**
+     * @param name runner name used in the summary, e.g. "Web"
+     */
+    public PrefixReplay(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Groups the scenarios a runner is about to run. Disabled with prefix.replay=false.
+     *
+     * @param scenarios rows of the runner's data provider, a PickleWrapper first
+     * @return the same rows
+     */
+    public Object[][] plan(Object[][] scenarios) {
+        groups.clear();
+        UtilProperties properties = UtilProperties.getInstance();
+        if (!Boolean.parseBoolean(properties.getProperty("prefix.replay", "false"))) {
+            return scenarios;
+        }
+        List<Pickle> pickles = new ArrayList<>();
+        List<String> features = new ArrayList<>();
+        List<List<String>> steps = new ArrayList<>();
+        for (Object[] row : scenarios) {
+            Pickle pickle = unwrap(((PickleWrapper) row[0]).getPickle());
+            if (pickle.getTags().contains(OPT_OUT_TAG)) {
+                continue;
+            }
+            pickles.add(pickle);
+            features.add(pickle.getUri().toString());
+            steps.add(stepKeys(pickle));
+        }
+        int[] prefixes = plan(features, steps, Math.max(1, properties.getInteger("prefix.minSteps", 1)));
+        Map<String, Group> byPrefix = new LinkedHashMap<>();
+        for (int i = 0; i < pickles.size(); i++) {
+            if (prefixes[i] == 0) {
+                continue;
+            }
+            int prefix = prefixes[i];
+            String key = features.get(i) + "\n" + String.join("\n", steps.get(i).subList(0, prefix));
+            Group group = byPrefix.computeIfAbsent(key, k -> new Group(prefix));
+            groups.put(pickles.get(i).getId(), group);
+        }
+        if (!byPrefix.isEmpty()) {
+            logger.info("Prefix replay: {} groups of {} scenarios share their leading steps", byPrefix.size(), groups.size());
+        }
+        return scenarios;
+    }
+
+    /**
+     * Groups scenarios by their leading steps.
+     *
+     * @param features feature of each scenario; only scenarios of the same feature are grouped
+     * @param steps step texts of each scenario
+     * @param minSteps steps a group shares at least
+     * @return for each scenario, the number of leading steps it shares with its
+     *         group, or 0 when it is not in a group
+     */
+    public static int[] plan(List<String> features, List<List<String>> steps, int minSteps) {
+        Map<String, List<Integer>> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < steps.size(); i++) {
+            if (steps.get(i).size() > minSteps) {
+                String key = features.get(i) + "\n" + String.join("\n", steps.get(i).subList(0, minSteps));
+                candidates.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+            }
+        }
+        int[] prefixes = new int[steps.size()];
+        for (List<Integer> members : candidates.values()) {
+            if (members.size() < 2) {
+                continue;
+            }
+            // Longest shared prefix that leaves every member at least one step of its own
+            List<String> first = steps.get(members.get(0));
+            int prefix = first.size();
+            for (int member : members) {
+                List<String> other = steps.get(member);
+                int shared = 0;
+                while (shared < prefix && shared < other.size() - 1 && first.get(shared).equals(other.get(shared))) {
+                    shared++;
+                }
+                prefix = shared;
+            }
+            for (int member : members) {
+                prefixes[member] = prefix;
+            }
+        }
+        return prefixes;
+    }
+
+    /**
+     * Runs a scenario: in full while its group has no snapshot, otherwise
+     * without the prefix steps.
+     *
+     * @param scenario the scenario
+     * @param run runs the scenario, or the scenario without its prefix steps, once
+     */
+    public void run(PickleWrapper scenario, ScenarioRun run) {
+        Pickle pickle = unwrap(scenario.getPickle());
+        Group group = groups.get(pickle.getId());
+        if (group == null) {
+            run.run(scenario);
+            return;
+        }
+        BrowserState snapshot = group.snapshot;
+        // Retries run in full, in case the restored state was the problem
+        boolean replay = snapshot != null && ScenarioRetry.describeAttempt() == null;
+        current.set(new Member(group, replay ? snapshot : null));
+        try {
+            if (replay) {
+                replayed.incrementAndGet();
+                skippedSteps.addAndGet(group.prefix);
+                run.run(wrap(new SuffixPickle(pickle, group.prefix)));
+            } else {
+                run.run(scenario);
+            }
+        } finally {
+            current.remove();
+        }
+    }
+
+    /**
+     * Restores the prefix state before the remaining steps of a replayed scenario.
+     *
+     * @param scenario the current scenario
+     * @param driver its browser
+     */
+    public static void restore(Scenario scenario, WebDriver driver) {
+        Member member = current.get();
+        if (member == null || member.replay == null) {
+            return;
+        }
+        member.replay.restore(driver);
+        scenario.log(String.format("Prefix replay: the %d leading steps shared with '%s' were not run; "
+                + "the browser state after them was restored", member.group.prefix, member.group.leader));
+    }
+
+    /**
+     * Captures the browser state once the prefix steps of a scenario run in full have passed.
+     *
+     * @param scenario the current scenario, after one of its steps
+     * @param driver its browser
+     */
+    public static void afterStep(Scenario scenario, WebDriver driver) {
+        Member member = current.get();
+        if (member == null || member.replay != null || ++member.steps != member.group.prefix || scenario.isFailed()) {
+            return;
+        }
+        try {
+            BrowserState snapshot = BrowserState.capture(driver);
+            member.group.leader = scenario.getName();
+            member.group.snapshot = snapshot;
+        } catch (RuntimeException e) {
+            logger.warn("Prefix replay: could not capture the browser state of '{}': {}", scenario.getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Logs how many steps were not run and adds it to the Extent system info.
+     */
+    public void publish() {
+        if (groups.isEmpty()) {
+            return;
+        }
+        String summary = String.format("%d scenarios restored a shared prefix instead of running %d steps",
+                replayed.get(), skippedSteps.get());
+        logger.info("{} prefix replay: {}", name, summary);
+        ExtentService.getInstance().setSystemInfo(name + " prefix replay", summary);
+    }
+
+    private static List<String> stepKeys(Pickle pickle) {
+        List<String> keys = new ArrayList<>();
+        for (Step step : pickle.getSteps()) {
+            StringBuilder key = new StringBuilder(step.getText());
+            if (step.getArgument() instanceof DocStringArgument) {
+                key.append("\n").append(((DocStringArgument) step.getArgument()).getContent());
+            } else if (step.getArgument() instanceof DataTableArgument) {
+                key.append("\n").append(((DataTableArgument) step.getArgument()).cells());
+            }
+            keys.add(key.toString());
+        }
+        return keys;
+    }
+
+    private static Pickle unwrap(io.cucumber.testng.Pickle pickle) {
+        try {
+            return (Pickle) UNWRAP.invoke(pickle);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(String.format("Could not read the pickle of '%s'", pickle.getName()), e);
+        }
+    }
+
+    private static PickleWrapper wrap(Pickle pickle) {
+        try {
+            io.cucumber.testng.Pickle wrapped = WRAP.newInstance(pickle);
+            return () -> wrapped;
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(String.format("Could not wrap the pickle of '%s'", pickle.getName()), e);
+        }
+    }
+
+    private static class Group {
+        final int prefix;
+        volatile BrowserState snapshot;
+        volatile String leader;
+
+        Group(int prefix) {
+            this.prefix = prefix;
+        }
+    }
+
+    private static class Member {
+        final Group group;
+        final BrowserState replay;
+        int steps;
+
+        Member(Group group, BrowserState replay) {
+            this.group = group;
+            this.replay = replay;
+        }
+    }
+
+    /**
+     * The pickle without its first steps; everything else, including its id
+     * and location, is the original's.
+     */
+    private static class SuffixPickle implements Pickle {
+        private final Pickle pickle;
+        private final int skip;
+
+        SuffixPickle(Pickle pickle, int skip) {
+            this.pickle = pickle;
+            this.skip = skip;
+        }
+
+        @Override
+        public String getKeyword() {
+            return pickle.getKeyword();
+        }
+
+        @Override
+        public String getLanguage() {
+            return pickle.getLanguage();
+        }
+
+        @Override
+        public String getName() {
+            return pickle.getName();
+        }
+
+        @Override
+        public Location getLocation() {
+            return pickle.getLocation();
+        }
+
+        @Override
+        public Location getScenarioLocation() {
+            return pickle.getScenarioLocation();
+        }
+
+        @Override
+        public List<Step> getSteps() {
+            return pickle.getSteps().subList(skip, pickle.getSteps().size());
+        }
+
+        @Override
+        public List<String> getTags() {
+            return pickle.getTags();
+        }
+
+        @Override
+        public URI getUri() {
+            return pickle.getUri();
+        }
+
+        @Override
+        public String getId() {
+            return pickle.getId();
+        }
+    }
+}
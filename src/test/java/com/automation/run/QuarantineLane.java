@@ -0,0 +1,136 @@
+package com.automation.run;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.cucumber.testng.AbstractTestNGCucumberTests;
+import io.cucumber.testng.FeatureWrapper;
+import io.cucumber.testng.PickleWrapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterSuite;
+import org.testng.annotations.Test;
+
+import com.automation.api.ApiConnectionPool;
+import com.automation.api.ApiMockServer;
+import com.automation.api.HttpJournal;
+import com.automation.manager.DriverManager;
+import com.automation.manager.DriverReaper;
+import com.aventstack.extentreports.service.ExtentService;
+
+/**
+ * Base class of the quarantine lanes in quarantine.xml.
+ *
+ * A lane runs only the scenarios the {@link FlakinessTracker} quarantined,
+ * which the main runners leave out. quarantine.xml is the second suite in
+ * the surefire configuration, so the lanes start once the main suite is done
+ * and run next to each other. Their results keep feeding the flakiness history,
+ * but a failure is reported as a skip, so it never fails the build.
+ *
+ * The quarantined scenarios and their flake scores are listed in the Extent
+ * system info and each one carries a note in its report entry.
+ */
+public abstract class QuarantineLane extends AbstractTestNGCucumberTests {
+
+    private static final Logger logger = LogManager.getLogger(QuarantineLane.class);
+
+    // Flake score of the quarantined scenario running on this thread, read by the hooks
+    private static final ThreadLocal<Double> current = new ThreadLocal<>();
+
+    private final String name;
+    private final ScenarioRetry retry;
+    private final List<String> quarantined = new ArrayList<>();
+
+    /**
+     * @param name lane name used in the log and the report, e.g. "API"
+     */
+    protected QuarantineLane(String name) {
+        this.name = name;
+        this.retry = new ScenarioRetry(name + " quarantine");
+    }
+
+    /**
+     * Subclasses override this to choose the data provider parallelism and
+     * return {@code quarantinedScenarios()}.
+     */
+    @Override
+    public abstract Object[][] scenarios();
+
+    /**
+     * @return the quarantined scenarios matching this lane's tags
+     */
+    protected Object[][] quarantinedScenarios() {
+        FlakinessTracker tracker = FlakinessTracker.getInstance();
+        Object[][] scenarios = tracker.filter(ShardPlanner.select(super.scenarios()), true);
+        for (Object[] scenario : scenarios) {
+            String key = ScenarioHistory.key(((PickleWrapper) scenario[0]).getPickle());
+            quarantined.add(String.format("%s (score %.2f)", key, tracker.score(key)));
+        }
+        if (!quarantined.isEmpty()) {
+            logger.info("{} quarantine lane runs {} scenarios: {}", name, quarantined.size(), String.join(", ", quarantined));
+        }
+        return scenarios;
+    }
+
+    /**
+     * Runs a quarantined scenario with the usual retries and turns a failure
+     * into a skip.
+     *
+     * @param pickleWrapper  the scenario
+     * @param featureWrapper the feature it belongs to
+     */
+    @Override
+    @Test(groups = "cucumber", description = "Runs Cucumber Scenarios", dataProvider = "scenarios")
+    public void runScenario(PickleWrapper pickleWrapper, FeatureWrapper featureWrapper) {
+        current.set(FlakinessTracker.getInstance().score(ScenarioHistory.key(pickleWrapper.getPickle())));
+        try {
+            retry.run(pickleWrapper.getPickle(), () -> super.runScenario(pickleWrapper, featureWrapper));
+        } catch (SkipException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new SkipException(String.format("Quarantined scenario '%s' failed: %s",
+                    pickleWrapper.getPickle().getName(), t), t);
+        } finally {
+            current.remove();
+        }
+    }
+
+    /**
+     * @return a note for the report when this thread runs a quarantined scenario, otherwise null
+     */
+    public static String describeQuarantine() {
+        Double score = current.get();
+        if (score == null) {
+            return null;
+        }
+        return String.format("Quarantined: flake score %.2f, a failure does not fail the build", score);
+    }
+
+    /**
+     * Lists the quarantined scenarios in the report before Cucumber finishes it.
+     */
+    @Override
+    @AfterClass(alwaysRun = true)
+    public void tearDownClass() {
+        if (!quarantined.isEmpty()) {
+            retry.publish();
+            ExtentService.getInstance().setSystemInfo(name + " quarantined scenarios", String.join(", ", quarantined));
+        }
+        super.tearDownClass();
+    }
+
+    /**
+     * Releases what the quarantined scenarios used; the main suite already
+     * released its own in its @AfterSuite.
+     */
+    @AfterSuite(alwaysRun = true)
+    public void afterQuarantineSuite() {
+        DriverManager.getInstance().closeDriver();
+        DriverReaper.shutdown();
+        ApiMockServer.stop();
+        HttpJournal.getInstance().close();
+        ApiConnectionPool.getInstance().shutdown();
+    }
+}
@@ -0,0 +1,34 @@
+package com.automation.run;
+
+import io.cucumber.testng.CucumberOptions;
+import org.testng.annotations.DataProvider;
+
+/**
+ * Quarantine lane for @API scenarios (see {@link QuarantineLane}).
+ * Runs them in parallel like {@link Main}, with its own JSON report.
+ */
+@CucumberOptions(
+    features = "src/test/resources/features/",
+    glue = "com.automation.stepdef",
+    plugin = {
+        "com.aventstack.extentreports.cucumber.adapter.ExtentCucumberAdapter:",
+        "com.automation.run.ScenarioTracker",
+        "com.automation.run.IncrementalRun",
+        "pretty",
+        "json:target/cucumber-reports/QuarantineApiReport.json"
+    },
+    tags = "@API",
+    monochrome = true
+)
+public class QuarantinedApiTests extends QuarantineLane {
+
+    public QuarantinedApiTests() {
+        super("API");
+    }
+
+    @Override
+    @DataProvider(parallel = true)
+    public Object[][] scenarios() {
+        return quarantinedScenarios();
+    }
+}
@@ -0,0 +1,34 @@
+package com.automation.run;
+
+import io.cucumber.testng.CucumberOptions;
+import org.testng.annotations.DataProvider;
+
+/**
+ * Quarantine lane for @Web scenarios (see {@link QuarantineLane}).
+ * Runs them one at a time like {@link WebTests}, as they share the browser.
+ */
+@CucumberOptions(
+    features = "src/test/resources/features/",
+    glue = "com.automation.stepdef",
+    plugin = {
+        "com.aventstack.extentreports.cucumber.adapter.ExtentCucumberAdapter:",
+        "com.automation.run.ScenarioTracker",
+        "com.automation.run.IncrementalRun",
+        "pretty",
+        "json:target/cucumber-reports/QuarantineWebReport.json"
+    },
+    tags = "@Web",
+    monochrome = true
+)
+public class QuarantinedWebTests extends QuarantineLane {
+
+    public QuarantinedWebTests() {
+        super("Web");
+    }
+
+    @Override
+    @DataProvider(parallel = false)
+    public Object[][] scenarios() {
+        return quarantinedScenarios();
+    }
+}
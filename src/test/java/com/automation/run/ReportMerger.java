@@ -0,0 +1,129 @@
+package com.automation.run;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Combines the reports of sharded runs (see {@link ShardPlanner}) into one.
+ *
+ * Usage: {@code ReportMerger <output dir> <shard dir>...}, where each shard
+ * dir holds the collected target/cucumber-reports and Reports folders of one
+ * machine. Cucumber JSON files with the same name are merged feature by
+ * feature. The Extent JSON archives (extent.json, see extent.properties) are
+ * loaded into one Spark report.
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.automation.run.ReportMerger -Dexec.args="merged shard-1 shard-2"
+ * </pre>
+ * On Java 9+ reading the Extent archives needs
+ * MAVEN_OPTS="--add-opens java.base/java.lang=ALL-UNNAMED" (see the jdk9+ profile).
+ */
+public class ReportMerger {
+
+    private static final Logger logger = LogManager.getLogger(ReportMerger.class);
+
+    private static final String[] CUCUMBER_REPORTS = {"CucumberTestReport.json", "WebTestReport.json"};
+    private static final String EXTENT_ARCHIVE = "extent.json";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: ReportMerger <output dir> <shard dir>...");
+        }
+        List<Path> shards = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            shards.add(Paths.get(args[i]));
+        }
+        new ReportMerger().merge(Paths.get(args[0]), shards);
+    }
+
+    /**
+     * @param output directory the merged reports are written to
+     * @param shards directories holding the reports of each shard
+     */
+    public void merge(Path output, List<Path> shards) throws IOException {
+        Files.createDirectories(output);
+        for (String report : CUCUMBER_REPORTS) {
+            List<Path> inputs = find(shards, report);
+            if (!inputs.isEmpty()) {
+                mergeCucumberJson(inputs, output.resolve(report));
+            }
+        }
+        List<Path> archives = find(shards, EXTENT_ARCHIVE);
+        if (!archives.isEmpty()) {
+            mergeExtent(archives, output.resolve("Spark.html"));
+        }
+    }
+
+    /**
+     * Concatenates the features of several Cucumber JSON reports. A feature
+     * split across shards becomes one feature holding all of its scenarios.
+     */
+    void mergeCucumberJson(List<Path> inputs, Path target) throws IOException {
+        Map<String, ObjectNode> features = new LinkedHashMap<>();
+        for (Path input : inputs) {
+            JsonNode report = mapper.readTree(input.toFile());
+            for (JsonNode feature : report) {
+                String uri = feature.path("uri").asText();
+                ObjectNode merged = features.get(uri);
+                if (merged == null) {
+                    features.put(uri, ((ObjectNode) feature).deepCopy());
+                } else {
+                    ArrayNode elements = merged.withArray("elements");
+                    for (JsonNode element : feature.path("elements")) {
+                        elements.add(element);
+                    }
+                }
+            }
+        }
+        ArrayNode result = mapper.createArrayNode();
+        features.values().forEach(result::add);
+        mapper.writeValue(target.toFile(), result);
+        logger.info("Merged {} reports into {} ({} features)", inputs.size(), target, features.size());
+    }
+
+    private void mergeExtent(List<Path> archives, Path target) throws IOException {
+        ExtentReports extent = new ExtentReports();
+        extent.attachReporter(new ExtentSparkReporter(target.toFile()));
+        for (Path archive : archives) {
+            extent.createDomainFromJsonArchive(archive.toFile());
+        }
+        extent.flush();
+        logger.info("Merged {} Extent archives into {}", archives.size(), target);
+    }
+
+    private static List<Path> find(List<Path> roots, String fileName) throws IOException {
+        List<Path> found = new ArrayList<>();
+        for (Path root : roots) {
+            if (!Files.isDirectory(root)) {
+                throw new IOException(String.format("Shard report directory %s does not exist", root));
+            }
+            try (Stream<Path> files = Files.walk(root)) {
+                found.addAll(files.filter(path -> path.getFileName().toString().equals(fileName))
+                        .sorted()
+                        .collect(Collectors.toList()));
+            }
+        }
+        return found;
+    }
+}
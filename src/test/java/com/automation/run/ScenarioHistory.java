@@ -0,0 +1,155 @@
+package com.automation.run;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.automation.Utilities.PathManager;
+import com.automation.utils.UtilProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Per-scenario durations remembered across runs.
+ *
+ * {@link ScenarioTracker} records how long every scenario took and saves the
+ * history when a run finishes (history.file, by default
+ * test-output/history/scenario-durations.json). Runners use it to order their
+ * scenarios longest-first, so a long scenario starts early instead of
+ * deciding the wall-clock time at the end of the run.
+ *
+ * Scenarios are keyed by feature path relative to the project and line, so
+ * the history carries over between checkouts and machines.
+ */
+public class ScenarioHistory {
+
+    private static final Logger logger = LogManager.getLogger(ScenarioHistory.class);
+
+    // Weight of the newest run in the moving average
+    private static final double SMOOTHING = 0.3;
+    private static final String DEFAULT_FILE = "test-output/history/scenario-durations.json";
+
+    private static final ScenarioHistory instance = new ScenarioHistory();
+
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    // Durations as loaded at startup; estimates only use these so that runners
+    // asking at different times during the run (and other shards) see the same values
+    private final Map<String, Long> previous = new ConcurrentHashMap<>();
+    private final Map<String, Long> durations = new ConcurrentHashMap<>();
+    private final File file;
+    private final long defaultEstimateMillis;
+
+    private ScenarioHistory() {
+        UtilProperties properties = UtilProperties.getInstance();
+        file = new File(PathManager.getAbsolutePath(properties.getProperty("history.file", DEFAULT_FILE)));
+        defaultEstimateMillis = properties.getLong("history.defaultEstimateMs", 0);
+        load();
+    }
+
+    public static ScenarioHistory getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param uri feature file URI as reported by Cucumber
+     * @param line line of the scenario (or example row)
+     * @return the history key: project-relative path and line
+     */
+    public static String key(URI uri, int line) {
+        String path = uri.getPath() == null ? uri.toString() : uri.getPath();
+        String root = Paths.get(System.getProperty("user.dir")).toUri().getPath();
+        if (path.startsWith(root)) {
+            path = path.substring(root.length());
+        }
+        return path + ":" + line;
+    }
+
+    /**
+     * @param pickle scenario as provided to TestNG
+     * @return the history key of the scenario
+     */
+    public static String key(Pickle pickle) {
+        return key(pickle.getUri(), pickle.getLine());
+    }
+
+    /**
+     * Folds one run of a scenario into its moving average.
+     */
+    public void record(String key, long millis) {
+        durations.merge(key, millis, (average, latest) -> Math.round(average * (1 - SMOOTHING) + latest * SMOOTHING));
+    }
+
+    /**
+     * @param key history key of the scenario
+     * @return the expected duration in milliseconds, from the history as it was
+     *         when the run started. Scenarios without history
+     *         get history.defaultEstimateMs, or the average of the known ones
+     *         when that is not set.
+     */
+    public long estimate(String key) {
+        Long known = previous.get(key);
+        if (known != null) {
+            return known;
+        }
+        if (defaultEstimateMillis > 0 || previous.isEmpty()) {
+            return defaultEstimateMillis;
+        }
+        long total = 0;
+        for (long duration : previous.values()) {
+            total += duration;
+        }
+        return total / previous.size();
+    }
+
+    /**
+     * Orders TestNG scenario rows longest-first (LPT scheduling). Equal
+     * estimates keep their feature-file order.
+     * @param scenarios rows of {PickleWrapper, FeatureWrapper}
+     * @return the same rows, reordered
+     */
+    public Object[][] longestFirst(Object[][] scenarios) {
+        List<Object[]> rows = new ArrayList<>(Arrays.asList(scenarios));
+        rows.sort(Comparator.comparingLong((Object[] row) -> estimate(key(((PickleWrapper) row[0]).getPickle()))).reversed());
+        return rows.toArray(new Object[0][]);
+    }
+
+    /**
+     * Writes the history, merged with what other runners in this JVM recorded.
+     */
+    public synchronized void save() {
+        try {
+            PathManager.ensureDirectoryExists(file.getParent());
+            mapper.writeValue(file, new TreeMap<>(durations));
+        } catch (IOException e) {
+            logger.warn("Could not save scenario durations to {}", file, e);
+        }
+    }
+
+    private void load() {
+        if (!file.isFile()) {
+            return;
+        }
+        try {
+            previous.putAll(mapper.readValue(file, new TypeReference<Map<String, Long>>() {
+            }));
+            durations.putAll(previous);
+        } catch (IOException e) {
+            // A corrupt history only costs the ordering, so start over rather than fail the run
+            logger.warn("Ignoring unreadable scenario history {}", file, e);
+        }
+    }
+}
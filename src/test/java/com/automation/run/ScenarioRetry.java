@@ -0,0 +1,160 @@
+package com.automation.run;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.cucumber.testng.Pickle;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.SkipException;
+
+import com.automation.utils.UtilProperties;
+import com.aventstack.extentreports.service.ExtentService;
+
+/**
+ * Re-runs a failed scenario in the running JVM, up to retry.count more times.
+ *
+ * Only the failed pickle runs again, with the loaded configuration, the
+ * connection pool and, for web scenarios, the open browser (the @Web teardown
+ * asks {@link #willRetry()} and only resets the browser). Every attempt is a
+ * separate entry in the Extent and Cucumber reports; attempts after the first
+ * are marked by a log line from ScenarioHooks.
+ *
+ * Each runner owns an instance; its counts are logged and added to the Extent
+ * system info by {@link #publish()}. The outcome of every scenario (passed,
+ * passed on retry, failed) goes to the {@link FlakinessTracker}.
+ */
+public class ScenarioRetry {
+
+    private static final Logger logger = LogManager.getLogger(ScenarioRetry.class);
+
+    // Attempt running on this thread, read by the hooks
+    private static final ThreadLocal<Attempt> current = new ThreadLocal<>();
+
+    private final String name;
+    private final AtomicInteger reruns = new AtomicInteger();
+    private final AtomicLong rerunMillis = new AtomicLong();
+    private final Queue<String> flaky = new ConcurrentLinkedQueue<>();
+    private final Queue<String> failed = new ConcurrentLinkedQueue<>();
+
+    /**
+     * A single run of a scenario.
+     */
+    public interface ScenarioRun {
+        void run();
+    }
+
+    /**
+     * @param name runner name used in the summary, e.g. "API"
+     */
+    public ScenarioRetry(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Runs the scenario, and again after each failure while retries are left.
+     * Skipped scenarios are not retried.
+     *
+     * @param pickle the scenario
+     * @param run runs the scenario once and throws when it did not pass;
+     *            the failure of the last attempt is rethrown
+     */
+    public void run(Pickle pickle, ScenarioRun run) {
+        run(ScenarioHistory.key(pickle), pickle.getName(), run);
+    }
+
+    /**
+     * Runs the scenario, and again after each failure while retries are left.
+     * Skipped scenarios are not retried.
+     *
+     * @param key history key of the scenario
+     * @param scenarioName name of the scenario, for the logs
+     * @param run runs the scenario once and throws when it did not pass;
+     *            the failure of the last attempt is rethrown
+     */
+    public void run(String key, String scenarioName, ScenarioRun run) {
+        int maxAttempts = 1 + Math.max(0, UtilProperties.getInstance().getInteger("retry.count", 2));
+        String failure = null;
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            current.set(new Attempt(attempt, maxAttempts, failure));
+            try {
+                run.run();
+                FlakinessTracker.getInstance().record(key,
+                        attempt > 1 ? FlakinessTracker.RETRIED : FlakinessTracker.PASSED);
+                if (attempt > 1) {
+                    flaky.add(scenarioName);
+                    logger.warn("'{}' passed on attempt {} of {}", scenarioName, attempt, maxAttempts);
+                }
+                return;
+            } catch (SkipException e) {
+                throw e;
+            } catch (Throwable t) {
+                if (attempt >= maxAttempts) {
+                    FlakinessTracker.getInstance().record(key, FlakinessTracker.FAILED);
+                    if (attempt > 1) {
+                        failed.add(scenarioName);
+                    }
+                    throw t;
+                }
+                failure = t.toString();
+                logger.warn("'{}' failed on attempt {} of {}, retrying: {}", scenarioName, attempt, maxAttempts, failure);
+            } finally {
+                if (attempt > 1) {
+                    reruns.incrementAndGet();
+                    rerunMillis.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+                current.remove();
+            }
+        }
+    }
+
+    /**
+     * @return whether the scenario running on this thread is run again if it fails
+     */
+    public static boolean willRetry() {
+        Attempt attempt = current.get();
+        return attempt != null && attempt.number < attempt.max;
+    }
+
+    /**
+     * @return a note for the report when this thread runs a retry, otherwise null
+     */
+    public static String describeAttempt() {
+        Attempt attempt = current.get();
+        if (attempt == null || attempt.number == 1) {
+            return null;
+        }
+        return String.format("Retry: attempt %d of %d, the previous attempt failed with %s",
+                attempt.number, attempt.max, attempt.previousFailure);
+    }
+
+    /**
+     * Logs the retry counts and adds them to the Extent system info. Call it
+     * before the runner finishes, so the Extent report still picks them up.
+     */
+    public void publish() {
+        String summary = String.format("%d re-runs (%.1f s), %d passed on retry, %d failed every attempt",
+                reruns.get(), rerunMillis.get() / 1000.0, flaky.size(), failed.size());
+        logger.info("{} retries: {}", name, summary);
+        if (!flaky.isEmpty()) {
+            logger.info("{} scenarios that passed on retry: {}", name, String.join(", ", flaky));
+        }
+        ExtentService.getInstance().setSystemInfo(name + " retries", summary);
+    }
+
+    private static class Attempt {
+        final int number;
+        final int max;
+        final String previousFailure;
+
+        Attempt(int number, int max, String previousFailure) {
+            this.number = number;
+            this.max = max;
+            this.previousFailure = previousFailure;
+        }
+    }
+}
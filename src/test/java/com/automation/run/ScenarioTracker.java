@@ -0,0 +1,62 @@
+package com.automation.run;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.TestCase;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestCaseStarted;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.cucumber.plugin.event.TestStepStarted;
+
+import com.automation.utils.ExecutionContext;
+
+/**
+ * Cucumber plugin that publishes the running scenario and step to
+ * {@link ExecutionContext}.
+ *
+ * As a ConcurrentEventListener it receives events on the thread executing the
+ * scenario, which is what lets the thread-bound context work with parallel
+ * data providers. It also feeds scenario durations into {@link ScenarioHistory}
+ * and saves the {@link FlakinessTracker} history at the end of the run.
+ * Register it in the plugin list of every runner.
+ */
+public class ScenarioTracker implements ConcurrentEventListener {
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestCaseStarted.class, this::onTestCaseStarted);
+        publisher.registerHandlerFor(TestStepStarted.class, this::onTestStepStarted);
+        publisher.registerHandlerFor(TestCaseFinished.class, this::onTestCaseFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, event -> {
+            ScenarioHistory.getInstance().save();
+            FlakinessTracker.getInstance().save();
+        });
+    }
+
+    /**
+     * Builds the id used to key per-scenario data across the framework.
+     * Matches {@code uri:line} as seen from hooks and TestNG pickles.
+     */
+    public static String scenarioId(TestCase testCase) {
+        return testCase.getUri() + ":" + testCase.getLocation().getLine();
+    }
+
+    private void onTestCaseStarted(TestCaseStarted event) {
+        ExecutionContext.startScenario(scenarioId(event.getTestCase()), event.getTestCase().getName());
+    }
+
+    private void onTestCaseFinished(TestCaseFinished event) {
+        TestCase testCase = event.getTestCase();
+        ScenarioHistory.getInstance().record(ScenarioHistory.key(testCase.getUri(), testCase.getLocation().getLine()),
+                event.getResult().getDuration().toMillis());
+        ExecutionContext.finishScenario();
+    }
+
+    private void onTestStepStarted(TestStepStarted event) {
+        if (event.getTestStep() instanceof PickleStepTestStep) {
+            PickleStepTestStep step = (PickleStepTestStep) event.getTestStep();
+            ExecutionContext.startStep(ExecutionContext.getStepIndex() + 1, step.getStep().getText());
+        }
+    }
+}
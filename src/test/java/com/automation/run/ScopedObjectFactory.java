@@ -0,0 +1,270 @@
+package com.automation.run;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import io.cucumber.core.backend.ObjectFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.automation.utils.ExecutionContext;
+import com.automation.utils.Scoped;
+import com.automation.utils.Scoped.Lifetime;
+import com.aventstack.extentreports.service.ExtentService;
+
+/**
+ * Cucumber object factory that keeps each class for the lifetime it declares
+ * with {@link Scoped}: the suite, a feature file, or (the default) one scenario.
+ *
+ * Like cucumber-picocontainer, it creates step definition classes and their
+ * collaborators on first use, through their public constructor with the most
+ * parameters, resolving every parameter the same way. Heavy collaborators that
+ * do not change per scenario are thus built once instead of for every scenario.
+ * A class may not depend on one that lives shorter than itself.
+ *
+ * Selected with cucumber.object-factory in cucumber.properties. The time spent
+ * constructing objects is measured per scenario and summarized by
+ * {@link #publish(String)}.
+ */
+public class ScopedObjectFactory implements ObjectFactory {
+
+    private static final Logger logger = LogManager.getLogger(ScopedObjectFactory.class);
+
+    // Suite instances are shared by the factories of all runner threads
+    private static final Map<Class<?>, Object> suite = new HashMap<>();
+    private static final Statistics statistics = new Statistics();
+
+    private final Map<Class<?>, Object> feature = new HashMap<>();
+    private final Map<Class<?>, Object> scenario = new HashMap<>();
+    private final Set<Class<?>> constructing = new LinkedHashSet<>();
+    private String currentFeature;
+    private String scenarioName;
+    private int constructions;
+    private long constructionNanos;
+
+    @Override
+    public boolean addClass(Class<?> glueClass) {
+        return true;
+    }
+
+    @Override
+    public void start() {
+        constructions = 0;
+        constructionNanos = 0;
+        scenarioName = null;
+    }
+
+    @Override
+    public void stop() {
+        scenario.clear();
+        if (constructions > 0) {
+            logger.debug("Constructed {} objects in {} ms for '{}'", constructions,
+                    TimeUnit.NANOSECONDS.toMillis(constructionNanos), scenarioName);
+        }
+        statistics.scenario(scenarioName, constructions, constructionNanos);
+    }
+
+    @Override
+    public <T> T getInstance(Class<T> type) {
+        if (scenarioName == null) {
+            scenarioName = ExecutionContext.getScenarioName();
+        }
+        Lifetime lifetime = lifetimeOf(type);
+        Map<Class<?>, Object> instances;
+        switch (lifetime) {
+            case SUITE:
+                synchronized (suite) {
+                    return type.cast(getOrCreate(suite, type, lifetime));
+                }
+            case FEATURE:
+                String featureOfScenario = featureOf(ExecutionContext.getScenarioId());
+                if (!featureOfScenario.equals(currentFeature)) {
+                    feature.clear();
+                    currentFeature = featureOfScenario;
+                }
+                instances = feature;
+                break;
+            default:
+                instances = scenario;
+        }
+        return type.cast(getOrCreate(instances, type, lifetime));
+    }
+
+    private Object getOrCreate(Map<Class<?>, Object> instances, Class<?> type, Lifetime lifetime) {
+        Object instance = instances.get(type);
+        if (instance == null) {
+            instance = create(type, lifetime);
+            instances.put(type, instance);
+        }
+        return instance;
+    }
+
+    private Object create(Class<?> type, Lifetime lifetime) {
+        if (!constructing.add(type)) {
+            throw new RuntimeException(String.format("Circular dependency: %s", describe(constructing, type)));
+        }
+        try {
+            Constructor<?> constructor = constructorOf(type);
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            Object[] arguments = new Object[parameterTypes.length];
+            for (int i = 0; i < parameterTypes.length; i++) {
+                Lifetime dependency = lifetimeOf(parameterTypes[i]);
+                if (dependency.compareTo(lifetime) > 0) {
+                    throw new RuntimeException(String.format("%s (%s) cannot depend on %s (%s), which lives shorter",
+                            type.getName(), lifetime, parameterTypes[i].getName(), dependency));
+                }
+                arguments[i] = getInstance(parameterTypes[i]);
+            }
+            long start = System.nanoTime();
+            Object instance = constructor.newInstance(arguments);
+            long nanos = System.nanoTime() - start;
+            constructions++;
+            constructionNanos += nanos;
+            statistics.construction(type, lifetime, nanos);
+            return instance;
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(String.format("Failed to create %s: %s", type.getName(), cause), cause);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(String.format("Failed to create %s: %s", type.getName(), e.getMessage()), e);
+        } finally {
+            constructing.remove(type);
+        }
+    }
+
+    private static Constructor<?> constructorOf(Class<?> type) {
+        Constructor<?>[] constructors = type.getConstructors();
+        if (constructors.length == 0) {
+            throw new RuntimeException(String.format("%s has no public constructor", type.getName()));
+        }
+        return Arrays.stream(constructors).max(Comparator.comparingInt(Constructor::getParameterCount)).get();
+    }
+
+    private static Lifetime lifetimeOf(Class<?> type) {
+        Scoped scoped = type.getAnnotation(Scoped.class);
+        return scoped == null ? Lifetime.SCENARIO : scoped.value();
+    }
+
+    private static String featureOf(String scenarioId) {
+        if (scenarioId == null) {
+            return "";
+        }
+        int line = scenarioId.lastIndexOf(':');
+        return line < 0 ? scenarioId : scenarioId.substring(0, line);
+    }
+
+    private static String describe(Set<Class<?>> chain, Class<?> type) {
+        List<String> names = new ArrayList<>();
+        for (Class<?> link : chain) {
+            names.add(link.getSimpleName());
+        }
+        names.add(type.getSimpleName());
+        return String.join(" -> ", names);
+    }
+
+    /**
+     * Logs the object construction time since the previous call and adds it to
+     * the Extent system info, then starts counting again. Call it before the
+     * runner finishes, so the Extent report still picks it up. Runners that run
+     * in parallel share the counts; the first to finish reports the scenarios
+     * of both up to then.
+     *
+     * @param name runner name used in the summary, e.g. "API"
+     */
+    public static void publish(String name) {
+        String summary;
+        String byClass;
+        synchronized (statistics) {
+            summary = statistics.summary();
+            byClass = statistics.byClass();
+            statistics.reset();
+        }
+        if (summary == null) {
+            return;
+        }
+        logger.info("{} object construction: {}", name, summary);
+        logger.info("{} construction time by class: {}", name, byClass);
+        ExtentService.getInstance().setSystemInfo(name + " object construction", summary);
+    }
+
+    /**
+     * Drops the counts collected so far without reporting them, e.g. those of
+     * factories a unit test created.
+     */
+    public static void reset() {
+        statistics.reset();
+    }
+
+    /**
+     * Construction counts and times of all factories of the run.
+     */
+    private static class Statistics {
+        private final Map<String, long[]> byClass = new TreeMap<>();
+        private int scenarios;
+        private long constructions;
+        private long nanos;
+        private long maxNanos;
+        private String slowest;
+        private int longLived;
+
+        synchronized void construction(Class<?> type, Lifetime lifetime, long constructionNanos) {
+            long[] counts = byClass.computeIfAbsent(type.getSimpleName() + " (" + lifetime.name().toLowerCase() + ")", key -> new long[2]);
+            counts[0]++;
+            counts[1] += constructionNanos;
+            if (lifetime != Lifetime.SCENARIO) {
+                longLived++;
+            }
+        }
+
+        synchronized void scenario(String name, int scenarioConstructions, long scenarioNanos) {
+            scenarios++;
+            constructions += scenarioConstructions;
+            nanos += scenarioNanos;
+            if (scenarioNanos > maxNanos) {
+                maxNanos = scenarioNanos;
+                slowest = name;
+            }
+        }
+
+        synchronized String summary() {
+            if (scenarios == 0) {
+                return null;
+            }
+            return String.format("%d objects in %.1f ms over %d scenarios (%.2f ms per scenario, at most %.1f ms for '%s'); "
+                            + "%d suite or feature objects built once",
+                    constructions, nanos / 1e6, scenarios, nanos / 1e6 / scenarios, maxNanos / 1e6, slowest, longLived);
+        }
+
+        synchronized void reset() {
+            byClass.clear();
+            scenarios = 0;
+            constructions = 0;
+            nanos = 0;
+            maxNanos = 0;
+            slowest = null;
+            longLived = 0;
+        }
+
+        synchronized String byClass() {
+            List<String> entries = new ArrayList<>();
+            byClass.entrySet().stream()
+                    .sorted((a, b) -> Long.compare(b.getValue()[1], a.getValue()[1]))
+                    .forEach(entry -> entries.add(String.format("%s %d x %.1f ms",
+                            entry.getKey(), entry.getValue()[0], entry.getValue()[1] / 1e6)));
+            return String.join(", ", entries);
+        }
+    }
+}
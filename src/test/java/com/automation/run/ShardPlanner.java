@@ -0,0 +1,125 @@
+package com.automation.run;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import io.cucumber.testng.PickleWrapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.automation.utils.UtilProperties;
+
+/**
+ * Splits the scenarios of a runner across CI machines with -Dshard=i/K
+ * (i from 1 to K).
+ *
+ * Scenarios are assigned by expected duration from {@link ScenarioHistory}:
+ * longest first, each to the shard with the least work so far. This way all
+ * shards finish at about the same time. The assignment only depends on the
+ * scenario list and the history file, so every machine must use the same
+ * history file (e.g. -Dhistory.file=... from a CI cache). Otherwise
+ * scenarios can be run twice or skipped.
+ */
+public final class ShardPlanner {
+
+    private static final Logger logger = LogManager.getLogger(ShardPlanner.class);
+
+    private ShardPlanner() {
+    }
+
+    /**
+     * Keeps the scenarios of the shard given by the shard property.
+     * @param scenarios TestNG rows of {PickleWrapper, FeatureWrapper}
+     * @return the rows of this shard in their original order, or all rows
+     *         when no shard is configured
+     */
+    public static Object[][] select(Object[][] scenarios) {
+        return select(Arrays.asList(scenarios), row -> ScenarioHistory.key(((PickleWrapper) row[0]).getPickle()))
+                .toArray(new Object[0][]);
+    }
+
+    /**
+     * Keeps the scenarios of the shard given by the shard property.
+     * @param scenarios scenarios in any form, e.g. TestNG methods
+     * @param keyOf history key of a scenario
+     * @return the scenarios of this shard in their original order, or all
+     *         scenarios when no shard is configured
+     */
+    public static <T> List<T> select(List<T> scenarios, Function<T, String> keyOf) {
+        String spec = UtilProperties.getInstance().getProperty("shard", "");
+        if (spec.isEmpty()) {
+            return scenarios;
+        }
+        int[] shard = parse(spec);
+        List<String> keys = new ArrayList<>();
+        for (T scenario : scenarios) {
+            keys.add(keyOf.apply(scenario));
+        }
+        ScenarioHistory history = ScenarioHistory.getInstance();
+        int[] assignment = assign(keys, history::estimate, shard[1]);
+
+        List<T> selected = new ArrayList<>();
+        long estimate = 0;
+        for (int i = 0; i < scenarios.size(); i++) {
+            if (assignment[i] == shard[0] - 1) {
+                selected.add(scenarios.get(i));
+                estimate += history.estimate(keys.get(i));
+            }
+        }
+        logger.info("Shard {}: running {} of {} scenarios, estimated {} ms",
+                spec, selected.size(), scenarios.size(), estimate);
+        return selected;
+    }
+
+    /**
+     * Greedy longest-processing-time assignment. Ties are broken by key, so the
+     * result does not depend on the order the scenarios were discovered in.
+     * @param keys scenario keys
+     * @param estimate expected duration per key
+     * @param shards number of shards
+     * @return zero-based shard per key, in the order of keys
+     */
+    public static int[] assign(List<String> keys, ToLongFunction<String> estimate, int shards) {
+        Integer[] order = new Integer[keys.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong((Integer i) -> estimate.applyAsLong(keys.get(i))).reversed()
+                .thenComparing(keys::get));
+
+        long[] load = new long[shards];
+        int[] assignment = new int[keys.size()];
+        for (int index : order) {
+            int lightest = 0;
+            for (int s = 1; s < shards; s++) {
+                if (load[s] < load[lightest]) {
+                    lightest = s;
+                }
+            }
+            assignment[index] = lightest;
+            // Count unknown-length scenarios as 1 ms so they still spread out
+            load[lightest] += Math.max(1, estimate.applyAsLong(keys.get(index)));
+        }
+        return assignment;
+    }
+
+    private static int[] parse(String spec) {
+        String[] parts = spec.split("/");
+        try {
+            if (parts.length == 2) {
+                int index = Integer.parseInt(parts[0].trim());
+                int count = Integer.parseInt(parts[1].trim());
+                if (count >= 1 && index >= 1 && index <= count) {
+                    return new int[] {index, count};
+                }
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new RuntimeException(String.format("Invalid shard '%s', expected i/K with 1 <= i <= K", spec));
+    }
+}
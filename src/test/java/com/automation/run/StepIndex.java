@@ -0,0 +1,361 @@
+package com.automation.run;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import io.cucumber.cucumberexpressions.Expression;
+import io.cucumber.cucumberexpressions.ExpressionFactory;
+import io.cucumber.cucumberexpressions.ParameterTypeRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Step definitions indexed from their sources by {@link StepIndexProcessor}.
+ *
+ * Steps are looked up through a trie of the literal text each expression
+ * starts with, so a step is only matched against the expressions whose prefix
+ * it shares instead of against every one of them.
+ *
+ * {@link FeatureCompiler} binds the steps of compiled features through it at
+ * build time, so the index is only built by mvn test -Pcodegen. The Cucumber
+ * runners do not use it: Cucumber scans the glue and matches steps itself,
+ * and for a glue package of this size that scan is cheaper than building and
+ * checking the index.
+ *
+ * {@link #index} returns null when the index no longer matches the compiled
+ * glue (a step class not recompiled, or a step method changed or removed since).
+ */
+public class StepIndex {
+
+    private static final Logger logger = LogManager.getLogger(StepIndex.class);
+
+    private final Node root = new Node();
+    private final ExpressionFactory expressions = new ExpressionFactory(new ParameterTypeRegistry(Locale.ENGLISH));
+    private final int size;
+    private final List<Hook> hooks;
+
+    /**
+     * @param steps indexed step definitions
+     */
+    public StepIndex(List<Step> steps) {
+        this(steps, new ArrayList<>());
+    }
+
+    /**
+     * @param steps indexed step definitions
+     * @param hooks indexed Before and After hooks
+     */
+    public StepIndex(List<Step> steps, List<Hook> hooks) {
+        this.hooks = hooks;
+        for (Step step : steps) {
+            Node node = root;
+            for (char c : literalPrefix(step.getExpression()).toCharArray()) {
+                node = node.children.computeIfAbsent(c, key -> new Node());
+            }
+            node.steps.add(step);
+        }
+        size = steps.size();
+    }
+
+    /**
+     * Indexes the step definitions of a glue package by running
+     * {@link StepIndexProcessor} over its sources, then checks the index
+     * against the compiled glue.
+     *
+     * @param sourceRoot test source directory holding the glue package
+     * @param gluePackage package of the step definitions
+     * @return the index, or null when the compiled glue no longer matches its sources
+     */
+    public static StepIndex index(File sourceRoot, String gluePackage) {
+        File[] sources = new File(sourceRoot, gluePackage.replace('.', File.separatorChar)).listFiles((dir, name) -> name.endsWith(".java"));
+        if (sources == null || sources.length == 0) {
+            throw new RuntimeException(String.format("No step definitions found for %s in %s", gluePackage, sourceRoot));
+        }
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        if (javac == null) {
+            throw new RuntimeException("No Java compiler available; index the step definitions on a JDK");
+        }
+        File output;
+        try {
+            output = Files.createTempDirectory("step-index").toFile();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create a directory for the step index", e);
+        }
+        List<String> arguments = new ArrayList<>(Arrays.asList(
+                "-d", output.getPath(),
+                "-classpath", System.getProperty("java.class.path"),
+                "-encoding", "UTF-8",
+                "-proc:only",
+                "-processor", StepIndexProcessor.class.getName(),
+                "-implicit:none",
+                "-source", "1.8", "-nowarn"));
+        for (File source : sources) {
+            arguments.add(source.getPath());
+        }
+        if (javac.run(null, null, null, arguments.toArray(new String[0])) != 0) {
+            throw new RuntimeException(String.format("Could not index the step definitions of %s; see the compiler output above", gluePackage));
+        }
+        File file = new File(output, StepIndexProcessor.INDEX);
+        Index index;
+        try {
+            index = new ObjectMapper().readValue(file, Index.class);
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Could not read the step index %s", file), e);
+        }
+        String stale = findStaleness(index);
+        if (stale != null) {
+            logger.warn("The compiled glue does not match its sources ({}); recompile the tests", stale);
+            return null;
+        }
+        return new StepIndex(index.steps, index.hooks);
+    }
+
+    /**
+     * @return the number of indexed step definitions
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the indexed Before and After hooks
+     */
+    public List<Hook> getHooks() {
+        return hooks;
+    }
+
+    /**
+     * @param text step text without its keyword
+     * @return the step definitions whose literal prefix the text starts with
+     */
+    public List<Step> candidates(String text) {
+        List<Step> candidates = new ArrayList<>(root.steps);
+        Node node = root;
+        for (int i = 0; i < text.length() && node != null; i++) {
+            node = node.children.get(text.charAt(i));
+            if (node != null) {
+                candidates.addAll(node.steps);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * @param text step text without its keyword
+     * @return the step definitions matching the text; more than one means the step is ambiguous
+     */
+    public List<Step> match(String text) {
+        List<Step> matches = new ArrayList<>();
+        for (Step step : candidates(text)) {
+            if (step.compiled == null) {
+                step.compiled = expressions.createExpression(step.getExpression());
+            }
+            if (step.compiled.match(text) != null) {
+                matches.add(step);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the text every match of the expression starts with: up to the
+     * first parameter, optional or alternative text of a Cucumber expression,
+     * or the first metacharacter of a regular expression.
+     *
+     * @param expression Cucumber expression or regular expression
+     * @return the literal prefix, possibly empty
+     */
+    public static String literalPrefix(String expression) {
+        boolean regex = expression.startsWith("^") || expression.endsWith("$");
+        String source = expression.startsWith("^") ? expression.substring(1) : expression;
+        StringBuilder prefix = new StringBuilder();
+        for (char c : source.toCharArray()) {
+            if (regex ? ".[]()*+?{}|\\$^".indexOf(c) >= 0 : "{(\\".indexOf(c) >= 0) {
+                // A quantifier makes the character before it optional
+                if (regex && "*?{".indexOf(c) >= 0 && prefix.length() > 0) {
+                    prefix.setLength(prefix.length() - 1);
+                }
+                break;
+            }
+            if (!regex && c == '/') {
+                // Alternative text: the word before the slash is not literal either
+                prefix.setLength(prefix.lastIndexOf(" ") + 1);
+                break;
+            }
+            prefix.append(c);
+        }
+        return prefix.toString();
+    }
+
+    private static String findStaleness(Index index) {
+        List<Step> all = new ArrayList<>(index.steps);
+        all.addAll(index.hooks);
+        for (Step step : all) {
+            if (!isBound(step)) {
+                return String.format("%s.%s no longer has the step '%s'", step.getClassName(), step.getMethod(), step.getExpression());
+            }
+        }
+        for (String pkg : index.packages) {
+            URL dir = StepIndex.class.getClassLoader().getResource(pkg.replace('.', '/'));
+            if (dir == null || !"file".equals(dir.getProtocol())) {
+                continue;
+            }
+            File[] files;
+            try {
+                files = new File(dir.toURI()).listFiles((parent, name) -> name.endsWith(".class") && !name.contains("$"));
+            } catch (URISyntaxException e) {
+                continue;
+            }
+            for (File file : files == null ? new File[0] : files) {
+                String className = pkg + "." + file.getName().substring(0, file.getName().length() - ".class".length());
+                if (!index.classes.contains(className)) {
+                    return className + " is not indexed";
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isBound(Step step) {
+        try {
+            for (Method method : Class.forName(step.getClassName(), false, StepIndex.class.getClassLoader()).getDeclaredMethods()) {
+                if (!method.getName().equals(step.getMethod())) {
+                    continue;
+                }
+                for (Annotation annotation : method.getAnnotations()) {
+                    if (annotation.annotationType().getSimpleName().equals(step.getKeyword())
+                            && step.getExpression().equals(expressionOf(annotation))) {
+                        return true;
+                    }
+                }
+            }
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+        return false;
+    }
+
+    private static String expressionOf(Annotation annotation) {
+        try {
+            return String.valueOf(annotation.annotationType().getMethod("value").invoke(annotation));
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static class Node {
+        final Map<Character, Node> children = new HashMap<>();
+        final List<Step> steps = new ArrayList<>();
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private static class Index {
+        public Set<String> packages;
+        public Set<String> classes;
+        public List<Step> steps;
+        public List<Hook> hooks = new ArrayList<>();
+    }
+
+    /**
+     * A step definition in the index.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Step {
+        private String keyword;
+        private String expression;
+        private String className;
+        private String method;
+        private List<String> parameterTypes = new ArrayList<>();
+        private Expression compiled;
+
+        public Step() {
+        }
+
+        public Step(String keyword, String expression, String className, String method) {
+            this.keyword = keyword;
+            this.expression = expression;
+            this.className = className;
+            this.method = method;
+        }
+
+        public String getKeyword() {
+            return keyword;
+        }
+
+        public void setKeyword(String keyword) {
+            this.keyword = keyword;
+        }
+
+        public String getExpression() {
+            return expression;
+        }
+
+        public void setExpression(String expression) {
+            this.expression = expression;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public void setClassName(String className) {
+            this.className = className;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public List<String> getParameterTypes() {
+            return parameterTypes;
+        }
+
+        public void setParameterTypes(List<String> parameterTypes) {
+            this.parameterTypes = parameterTypes;
+        }
+
+        @Override
+        public String toString() {
+            return className + "." + method + " (\"" + expression + "\")";
+        }
+    }
+
+    /**
+     * A Before or After hook in the index. The expression is its tag expression,
+     * empty when the hook applies to every scenario.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Hook extends Step {
+        private int order;
+
+        public int getOrder() {
+            return order;
+        }
+
+        public void setOrder(int order) {
+            this.order = order;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.automation.run;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Annotation processor that writes an index of the Cucumber step definitions
+ * to {@value #INDEX} in the class output, at compile time.
+ *
+ * Each entry holds the step expression and the class, method and parameter
+ * types it is bound to. Before and After hooks are indexed with their tag
+ * expression and order. The index also lists every top-level class of the
+ * packages holding step definitions, so a reader can tell when classes were
+ * compiled without the processor and the index is stale.
+ *
+ * The processor is not registered as a service and the regular test
+ * compilation does not run it: {@link StepIndex#index} runs it over the glue
+ * sources when {@link FeatureCompiler} compiles features (mvn test -Pcodegen).
+ */
+@SupportedAnnotationTypes({
+    "io.cucumber.java.en.Given",
+    "io.cucumber.java.en.When",
+    "io.cucumber.java.en.Then",
+    "io.cucumber.java.en.And",
+    "io.cucumber.java.en.But",
+    "io.cucumber.java.Before",
+    "io.cucumber.java.After"
+})
+public class StepIndexProcessor extends AbstractProcessor {
+
+    public static final String INDEX = "META-INF/step-index.json";
+
+    private static final String HOOK_PACKAGE = "io.cucumber.java";
+    // Cucumber's default hook order
+    private static final int DEFAULT_ORDER = 10000;
+
+    private final List<Map<String, Object>> steps = new ArrayList<>();
+    private final List<Map<String, Object>> hooks = new ArrayList<>();
+    private final Set<String> packages = new HashSet<>();
+    private final Set<String> rootClasses = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getRootElements()) {
+            if (element instanceof TypeElement) {
+                rootClasses.add(processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString());
+            }
+        }
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.METHOD) {
+                    addStep(annotation, (ExecutableElement) element);
+                }
+            }
+        }
+        if (roundEnv.processingOver() && !steps.isEmpty()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    private void addStep(TypeElement annotation, ExecutableElement method) {
+        TypeElement type = (TypeElement) method.getEnclosingElement();
+        List<String> parameterTypes = new ArrayList<>();
+        for (VariableElement parameter : method.getParameters()) {
+            parameterTypes.add(processingEnv.getTypeUtils().erasure(parameter.asType()).toString());
+        }
+        Map<String, Object> step = new LinkedHashMap<>();
+        boolean hook = processingEnv.getElementUtils().getPackageOf(annotation).getQualifiedName().contentEquals(HOOK_PACKAGE);
+        step.put("keyword", annotation.getSimpleName().toString());
+        step.put("expression", String.valueOf(value(method, annotation, "value", "")));
+        step.put("className", processingEnv.getElementUtils().getBinaryName(type).toString());
+        step.put("method", method.getSimpleName().toString());
+        step.put("parameterTypes", parameterTypes);
+        if (hook) {
+            step.put("order", value(method, annotation, "order", DEFAULT_ORDER));
+            hooks.add(step);
+        } else {
+            steps.add(step);
+        }
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        packages.add(pkg.getQualifiedName().toString());
+    }
+
+    private Object value(ExecutableElement method, TypeElement annotation, String name, Object defaultValue) {
+        for (AnnotationMirror mirror : method.getAnnotationMirrors()) {
+            if (mirror.getAnnotationType().asElement().equals(annotation)) {
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : mirror.getElementValues().entrySet()) {
+                    if (value.getKey().getSimpleName().contentEquals(name)) {
+                        return value.getValue().getValue();
+                    }
+                }
+            }
+        }
+        return defaultValue;
+    }
+
+    private void writeIndex() {
+        Set<String> classes = new TreeSet<>();
+        for (String className : rootClasses) {
+            int dot = className.lastIndexOf('.');
+            if (packages.contains(dot < 0 ? "" : className.substring(0, dot))) {
+                classes.add(className);
+            }
+        }
+        Map<String, Object> index = new LinkedHashMap<>();
+        index.put("packages", new TreeSet<>(packages));
+        index.put("classes", classes);
+        Comparator<Map<String, Object>> byLocation = Comparator.comparing((Map<String, Object> step) -> (String) step.get("className"))
+                .thenComparing(step -> (String) step.get("method"));
+        steps.sort(byLocation);
+        hooks.sort(byLocation);
+        index.put("steps", steps);
+        index.put("hooks", hooks);
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX);
+            try (Writer writer = file.openWriter()) {
+                new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(writer, index);
+            }
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    String.format("Indexed %d step definitions in %s", steps.size(), Arrays.toString(packages.toArray())));
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Could not write the step index: " + e);
+        }
+    }
+}
@@ -2,13 +2,18 @@ package com.automation.run;
 
 import io.cucumber.testng.AbstractTestNGCucumberTests;
 import io.cucumber.testng.CucumberOptions;
+import io.cucumber.testng.FeatureWrapper;
+import io.cucumber.testng.PickleWrapper;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeSuite;
 import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
 
 import com.automation.manager.DriverManager;
+import com.automation.manager.DriverReaper;
 
 /**
  * WebTests runner class for Web UI tests.
@@ -42,6 +47,8 @@ import com.automation.manager.DriverManager;
     // Reporting plugins configuration
     plugin = {
         "com.aventstack.extentreports.cucumber.adapter.ExtentCucumberAdapter:",  // ExtentReports integration
+        "com.automation.run.ScenarioTracker",  // Publishes the running scenario/step to ExecutionContext
+        "com.automation.run.IncrementalRun",  // Remembers passing scenarios for incremental runs
         "pretty",  // Readable console output
         "html:target/cucumber-reports/cucumber-pretty",  // HTML reports
         "json:target/cucumber-reports/WebTestReport.json"  // JSON reports (separate from API)
@@ -60,18 +67,57 @@ public class WebTests extends AbstractTestNGCucumberTests {
     // WebDriver manager instance for browser control
     private DriverManager driverManager;
 
+    // Re-runs failed scenarios in this JVM (retry.count)
+    private final ScenarioRetry retry = new ScenarioRetry("Web");
+
+    // Runs the leading steps scenarios share once per group (prefix.replay)
+    private final PrefixReplay prefixReplay = new PrefixReplay("Web");
+
     /**
      * Provides test scenarios to TestNG for execution.
      * Overridden to disable parallel execution and ensure sequential test runs.
      * This is important for web tests to prevent multiple browser instances
-     * from interfering with each other.
+     * from interfering with each other. With -Dshard=i/K only this machine's
+     * shard is run. Quarantined flaky scenarios are left to {@link QuarantinedWebTests},
+     * and with mvn test -Pcodegen the compiled ones to codegen.xml.
+     * Scenarios sharing their leading steps are grouped by {@link PrefixReplay}.
      *
      * @return Array of test scenarios to be executed
      */
     @Override
     @DataProvider(parallel = false)
     public Object[][] scenarios() {
-        return super.scenarios();
+        Object[][] scenarios = FeatureCompiler.withoutCompiled(super.scenarios());
+        return prefixReplay.plan(FlakinessTracker.getInstance().filter(ShardPlanner.select(scenarios), false));
+    }
+
+    /**
+     * Runs one scenario, retrying it in this JVM when it fails.
+     * Replaces surefire's rerunFailingTestsCount, which re-initializes the
+     * whole runner for a rerun. A scenario whose group already ran the shared
+     * leading steps runs without them.
+     *
+     * @param pickleWrapper  the scenario
+     * @param featureWrapper the feature it belongs to
+     */
+    @Override
+    @Test(groups = "cucumber", description = "Runs Cucumber Scenarios", dataProvider = "scenarios")
+    public void runScenario(PickleWrapper pickleWrapper, FeatureWrapper featureWrapper) {
+        retry.run(pickleWrapper.getPickle(),
+                () -> prefixReplay.run(pickleWrapper, scenario -> super.runScenario(scenario, featureWrapper)));
+    }
+
+    /**
+     * Publishes the retry and prefix replay counts and object construction times
+     * before Cucumber finishes the reports.
+     */
+    @Override
+    @AfterClass(alwaysRun = true)
+    public void tearDownClass() {
+        retry.publish();
+        ScopedObjectFactory.publish("Web");
+        prefixReplay.publish();
+        super.tearDownClass();
     }
 
     /**
@@ -94,7 +140,8 @@ public class WebTests extends AbstractTestNGCucumberTests {
      * This method is marked with @AfterSuite to ensure it runs once after all web tests.
      * 
      * Important: This ensures that all browser instances are properly closed
-     * and system resources are released, even if tests fail. This prevents
+     * and system resources are released, even if tests fail. Browsers are quit
+     * in the background (DriverReaper); this waits until they are gone. This prevents
      * orphaned browser processes from consuming system resources.
      */
     @AfterSuite
@@ -103,5 +150,6 @@ public class WebTests extends AbstractTestNGCucumberTests {
         if (driverManager != null) {
             driverManager.closeDriver();
         }
+        DriverReaper.shutdown();
     }
 }
@@ -1,6 +1,7 @@
 package com.automation.stepdef;
 
 import io.cucumber.java.After;
+import io.cucumber.java.AfterStep;
 import io.cucumber.java.Before;
 import io.cucumber.java.Scenario;
 import java.net.MalformedURLException;
@@ -13,6 +14,8 @@ import com.automation.Utilities.TestContext;
 import com.automation.manager.FileReaderManager;
 import com.automation.manager.MobileDriverProviderCreator;
 import com.automation.manager.DriverManager;
+import com.automation.run.PrefixReplay;
+import com.automation.run.ScenarioRetry;
 
 /**
  * Hooks class for managing test lifecycle events in the Cucumber framework.
@@ -164,6 +167,29 @@ public class Hooks {
         }
     }
 
+    /**
+     * Restores the browser state a scenario group reached after its shared
+     * leading steps, when this scenario runs without them (see {@link PrefixReplay}).
+     * Runs after {@link #setUp()}, in the browser it opened.
+     *
+     * @param scenario The current test scenario
+     */
+    @Before(value = "@Web", order = 20000)
+    public void restoreSharedPrefix(Scenario scenario) {
+        PrefixReplay.restore(scenario, driverManager.getDriver());
+    }
+
+    /**
+     * Captures the browser state once the leading steps the scenario shares
+     * with others have passed (see {@link PrefixReplay}).
+     *
+     * @param scenario The current test scenario
+     */
+    @AfterStep("@Web")
+    public void snapshotSharedPrefix(Scenario scenario) {
+        PrefixReplay.afterStep(scenario, driverManager.getDriver());
+    }
+
     /**
      * Setup hook for Mobile tests.
      * Runs before each scenario tagged with @mobile.
@@ -235,8 +261,12 @@ public class Hooks {
                 takeScreenshot(scenario);
             }
             
-            // Clean up resources
-            testContext.tearDown();
+            // Clean up resources; a failed scenario that is retried keeps the warm browser
+            if (scenario.isFailed() && ScenarioRetry.willRetry()) {
+                testContext.resetForRetry();
+            } else {
+                testContext.tearDown();
+            }
         } catch (Exception e) {
             // Log cleanup errors but don't mask test failures
             System.err.println(String.format(
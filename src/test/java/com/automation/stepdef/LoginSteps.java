@@ -4,6 +4,7 @@ import io.cucumber.java.en.*;
 import org.testng.Assert;
 
 import com.automation.Pages.Login_Page;
+import com.automation.Utilities.SessionCache;
 import com.automation.Utilities.TestContext;
 import com.automation.manager.FileReaderManager;
 
@@ -24,6 +25,19 @@ public class LoginSteps {
         loginPage.go(FileReaderManager.getInstance().getConfigFileReader().getUrl());
     }
 
+    /**
+     * Logs in as a user role for scenarios that are not about logging in: the
+     * login form is only used the first time, later scenarios restore the
+     * session from the {@link SessionCache}.
+     */
+    @Given("I am logged in as {string}")
+    public void loginAs(String role) {
+        SessionCache.getInstance().login(testContext.getDriver(), role, (username, password) -> {
+            navigateToLoginPage();
+            loginPage.login(username, password);
+        });
+    }
+
     @And("the login form is displayed")
     public void verifyLoginFormDisplayed() {
         Assert.assertTrue(loginPage.isLoginFormDisplayed(), "Login form should be displayed");
@@ -0,0 +1,29 @@
+package com.automation.stepdef;
+
+import io.cucumber.java.en.*;
+import org.testng.Assert;
+
+import com.automation.Pages.Products_Page;
+import com.automation.Utilities.TestContext;
+
+/**
+ * Step definitions for Products feature
+ */
+public class ProductsSteps {
+    private final Products_Page productsPage;
+
+    public ProductsSteps(TestContext context) {
+        this.productsPage = context.getPageObjectManager().getProductsPage();
+    }
+
+    @When("I reload the page")
+    public void reloadPage() {
+        productsPage.reload();
+    }
+
+    @Then("the products page is displayed")
+    public void verifyProductsPageDisplayed() {
+        Assert.assertTrue(productsPage.isDisplayed(), "Products page should be displayed for a logged-in user");
+        Assert.assertEquals(productsPage.getTitle(), "Products", "Unexpected products page title");
+    }
+}
@@ -1,38 +1,51 @@
 package com.automation.stepdef;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
-import org.testng.Assert;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
-import com.github.fge.jsonschema.main.JsonSchema;
-import com.github.fge.jsonschema.main.JsonSchemaFactory;
-import com.github.fge.jsonschema.processors.syntax.SyntaxValidator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.Assert;
 
+import com.automation.api.ApiClient;
+import com.automation.api.ApiRequest;
+import com.automation.api.ApiResponse;
+import com.automation.api.ApiResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+
+import io.cucumber.datatable.DataTable;
+import io.cucumber.java.Before;
+import io.cucumber.java.Scenario;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
-import io.restassured.RestAssured;
-import io.restassured.path.json.JsonPath;
-import io.restassured.response.Response;
-import io.restassured.specification.RequestSpecification;
 
 public class RestAssuredSteps {
 
-	private static final String BASE_URL = "https://reqres.in/api/users";
+	private static final Logger logger = LogManager.getLogger(RestAssuredSteps.class);
+	private static final ObjectMapper mapper = new ObjectMapper();
 
-	private static String token;
-	private static Response response;
-	private static int StatusCode;
+	private final ApiClient apiClient;
+	private int StatusCode;
+	private List<ApiResult> batchResults;
 
-	@Given("Get the List of Users")
-	public void getListUser() {
+	public RestAssuredSteps(ApiClient apiClient) {
+		this.apiClient = apiClient;
+	}
 
-		RestAssured.baseURI = BASE_URL;
-		RequestSpecification request = RestAssured.given();
+	@Before("@cacheable")
+	public void useResponseCache(Scenario scenario) {
+		apiClient.enableResponseCache(scenario);
+	}
 
-		request.header("Content-Type", "application/json");
+	@Given("Get the List of Users")
+	public void getListUser() {
 
-		response = request.get("?page=2");
+		apiClient.get("?page=2", "user-list");
 
 //		String jsonString = response.asString();
 //		token = JsonPath.from(jsonString).get("data").toString();
@@ -50,7 +63,7 @@ public class RestAssuredSteps {
 
 	@When("get the Status code")
 	public void getstatuscode() {
-		StatusCode = response.getStatusCode();
+		StatusCode = apiClient.getResponse().getStatusCode();
 	}
 
 	@Then("the Status code Should Be {int}")
@@ -62,19 +75,17 @@ public class RestAssuredSteps {
 	@When("get the response")
 	public void getresponse() {
 
-		Assert.assertFalse(response.toString().isEmpty());
+		Assert.assertFalse(apiClient.getResponse().getBody().isEmpty());
 	}
 
 	@Then("the employee with ID : {int} Should be {string}")
 	public void the_employee_with_id_should_be(Integer int1, String string) {
-		String jsonString = response.asString();
-
-		JSONObject obj = new JSONObject(jsonString);
-		JSONArray data = obj.getJSONArray("data");
+		JsonNode data = apiClient.getResponse().getNode("data");
+		Assert.assertTrue(data.isArray(), "Response has no 'data' array");
 
-		for (int i = 0; i < data.length(); i++) {
-			if (data.getJSONObject(i).get("id").equals(int1)) {
-				Assert.assertTrue(data.getJSONObject(i).get("first_name").equals(string));
+		for (JsonNode user : data) {
+			if (user.path("id").isInt() && user.path("id").asInt() == int1) {
+				Assert.assertTrue(string.equals(user.path("first_name").textValue()));
 			}
 		}
 	}
@@ -82,42 +93,65 @@ public class RestAssuredSteps {
 	@Given("creat new user")
 	public void creatUser() {
 
-		RestAssured.baseURI = BASE_URL;
-		RequestSpecification request = RestAssured.given();
-
-		request.header("Content-Type", "application/json");
-
 		String ReqestBody = "{\"name\":\"Bryant\",\"job\":\"BA\"}";
 
-		response = request.body(ReqestBody).post();
+		ApiResponse response = apiClient.post(ReqestBody, "create-user");
 
-		String jsonString = response.asString();
-		token = JsonPath.from(jsonString).get("token");
+		apiClient.setToken(response.getString("token"));
 
 		StatusCode = response.getStatusCode();
 
 	}
 
+	@Given("create the following users")
+	public void createUsers(DataTable users) {
+
+		List<ApiRequest> requests = new ArrayList<>();
+		for (Map<String, String> user : users.asMaps()) {
+			// ObjectNode keeps the column order, so the body is stable for replay
+			ObjectNode body = mapper.createObjectNode();
+			for (Map.Entry<String, String> field : user.entrySet()) {
+				body.put(field.getKey(), field.getValue());
+			}
+			requests.add(ApiRequest.post(body.toString()).withSchema("create-user"));
+		}
+
+		batchResults = apiClient.sendAll(requests);
+		for (ApiResult result : batchResults) {
+			logger.info("Created user: {}", result);
+		}
+	}
+
+	@Then("every user is created with status {int}")
+	public void everyUserIsCreated(Integer status) {
+		Assert.assertNotNull(batchResults, "No batch of users was created");
+
+		for (ApiResult result : batchResults) {
+			Assert.assertNull(result.getError(), String.format("Request failed: %s", result));
+			Assert.assertEquals(result.getResponse().getStatusCode(), status.intValue(), result.toString());
+			Assert.assertTrue(result.getResponse().has("id"), String.format("No id generated: %s", result));
+		}
+	}
+
 	@Then("Verify if the ID is generate")
 	public void checkTheJson() {
 
-		String jsonString = response.asString();
-
-		JSONObject obj = new JSONObject(jsonString);
-		Object data = obj.get("id");
+		ApiResponse response = apiClient.getResponse();
 
-		Assert.assertFalse(data.toString().isEmpty());
+		Assert.assertTrue(response.getNode("id").isValueNode(), "Response has no 'id'");
+		Assert.assertFalse(response.getNode("id").asText().isEmpty());
 
 	}
 
 	@Then("Verify the response json scheme")
 	public void checkTheJsonscheme() {
 
-		String jsonString = response.asString();
-
-		JSONObject obj = new JSONObject(jsonString);
+		ApiResponse response = apiClient.getResponse();
+		Assert.assertNotNull(response.getSchemaId(), "The request was sent without a JSON schema");
 
-		Assert.assertFalse(obj.isNull("id"));
+		// Reuses the report of the validation ApiClient ran when the response arrived
+		ProcessingReport report = response.validateSchema();
+		Assert.assertTrue(report.isSuccess(), "Response does not match the schema " + response.getSchemaId() + ": " + report);
 	}
 
 }
@@ -0,0 +1,95 @@
+package com.automation.stepdef;
+
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.Scenario;
+import org.testng.SkipException;
+
+import com.automation.api.HttpJournal;
+import com.automation.manager.DBQueryMetrics;
+import com.automation.run.IncrementalRun;
+import com.automation.run.QuarantineLane;
+import com.automation.run.ScenarioRetry;
+import com.automation.utils.ExecutionContext;
+
+/**
+ * Hooks that apply to every scenario, regardless of its tags.
+ *
+ * Unlike {@link Hooks}, this class deliberately does not depend on TestContext:
+ * constructing a TestContext opens a browser, and these hooks also run for
+ * @API scenarios that never need one.
+ */
+public class ScenarioHooks {
+
+    /**
+     * Skips the scenario in incremental runs when it passed recently and
+     * nothing it depends on has changed (see {@link IncrementalRun}).
+     * Runs before all other hooks, so none of them or the steps run. Cucumber
+     * still runs the After hooks, including the @Web teardown.
+     *
+     * @param scenario The current test scenario
+     */
+    @Before(order = 0)
+    public void skipCachedScenario(Scenario scenario) {
+        String cached = IncrementalRun.cachedPass(ExecutionContext.getScenarioId());
+        if (cached != null) {
+            scenario.log(cached);
+            throw new SkipException(cached);
+        }
+    }
+
+    /**
+     * Marks retries of a failed scenario in the report (see {@link ScenarioRetry}).
+     *
+     * @param scenario The current test scenario
+     */
+    @Before(order = 1)
+    public void logRetryAttempt(Scenario scenario) {
+        String attempt = ScenarioRetry.describeAttempt();
+        if (attempt != null) {
+            scenario.log(attempt);
+        }
+    }
+
+    /**
+     * Marks scenarios run by a quarantine lane in the report (see {@link QuarantineLane}).
+     *
+     * @param scenario The current test scenario
+     */
+    @Before(order = 1)
+    public void logQuarantine(Scenario scenario) {
+        String quarantine = QuarantineLane.describeQuarantine();
+        if (quarantine != null) {
+            scenario.log(quarantine);
+        }
+    }
+
+    /**
+     * Attaches the time the scenario spent in the database, broken down per
+     * query, when the scenario ran any queries.
+     *
+     * @param scenario The current test scenario
+     */
+    @After(order = 100)
+    public void attachDatabaseSummary(Scenario scenario) {
+        String summary = DBQueryMetrics.getInstance().drainSummary(ExecutionContext.getScenarioId());
+        if (summary != null) {
+            scenario.attach(summary, "text/plain", "DB time");
+        }
+    }
+
+    /**
+     * Attaches the HTTP exchanges of a failed scenario from the journal.
+     * Entries of passing scenarios are dropped; the full journal is in
+     * test-output/journal either way.
+     *
+     * @param scenario The current test scenario
+     */
+    @After(order = 100)
+    public void attachHttpJournal(Scenario scenario) {
+        String entries = HttpJournal.getInstance().drainScenario(ExecutionContext.getScenarioId());
+        if (entries != null && scenario.isFailed()) {
+            scenario.attach(entries, "text/plain", "HTTP journal");
+        }
+    }
+}
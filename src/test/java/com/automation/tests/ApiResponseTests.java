@@ -0,0 +1,58 @@
+package com.automation.tests;
+
+import com.automation.api.ApiResponse;
+import com.automation.api.JsonPathCache;
+import com.automation.api.SchemaRegistry;
+import io.restassured.builder.ResponseBuilder;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ApiResponseTests {
+    private static final String USER_LIST = "{\"page\":2,\"per_page\":6,\"total\":12,\"total_pages\":2,\"data\":["
+            + "{\"id\":7,\"email\":\"michael.lawson@reqres.in\",\"first_name\":\"Michael\",\"last_name\":\"Lawson\"},"
+            + "{\"id\":10,\"email\":\"byron.fields@reqres.in\",\"first_name\":\"Byron\",\"last_name\":\"Fields\"}],"
+            + "\"support\":{\"url\":\"https://reqres.in/#support-heading\",\"text\":null}}";
+
+    private ApiResponse response(String body) {
+        return response(body, null);
+    }
+
+    private ApiResponse response(String body, String schemaId) {
+        return new ApiResponse(new ResponseBuilder().setStatusCode(200).setBody(body).build(), schemaId);
+    }
+
+    @Test
+    public void testPathsResolveAgainstParsedBody() {
+        ApiResponse response = response(USER_LIST);
+
+        Assert.assertEquals(response.getString("data[1].first_name"), "Byron");
+        Assert.assertEquals(response.getNode("data[0].id").asInt(), 7);
+        Assert.assertEquals(response.getString("support.url"), "https://reqres.in/#support-heading");
+        Assert.assertTrue(response.has("page"));
+        Assert.assertFalse(response.has("support.text"), "JSON null should not count as present");
+        Assert.assertNull(response.getString("token"));
+        Assert.assertNull(response.getString("data[5].id"));
+
+        // The tree is built once and reused by every lookup
+        Assert.assertSame(response.json(), response.json());
+    }
+
+    @Test
+    public void testCompiledPathsAreCached() {
+        Assert.assertSame(JsonPathCache.compile("data[0].first_name"), JsonPathCache.compile("data[0].first_name"));
+    }
+
+    @Test
+    public void testSchemaValidationUsesCompiledSchema() {
+        Assert.assertTrue(response(USER_LIST, "user-list").validateSchema().isSuccess());
+        Assert.assertFalse(response("{\"page\":\"two\"}", "user-list").validateSchema().isSuccess(),
+                "Invalid body passed schema validation");
+        Assert.assertSame(SchemaRegistry.getInstance().getSchema("user-list"),
+                SchemaRegistry.getInstance().getSchema("user-list"), "Schema was compiled twice");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMalformedPathIsRejected() {
+        JsonPathCache.compile("data[first");
+    }
+}
@@ -0,0 +1,139 @@
+package com.automation.tests;
+
+import com.automation.manager.MYSQLConnectionManager;
+import com.automation.manager.MYSQLFixtureLoader;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+public class DatabaseTests {
+    private MYSQLConnectionManager database;
+
+    @BeforeClass
+    public void setup() {
+        // Run against the in-process database seeded from src/test/resources/testdata
+        System.setProperty("_DB_MODE", "embedded");
+        database = MYSQLConnectionManager.getInstance();
+    }
+
+    @AfterClass
+    public void cleanup() {
+        System.clearProperty("_DB_MODE");
+    }
+
+    @Test
+    public void testEmbeddedDatabaseIsSeededFromFixtures() {
+        List<String> names = database.getListData("SELECT first_name FROM users WHERE id = 10", "first_name");
+        Assert.assertEquals(names.size(), 1, "Fixture row for id 10 not loaded");
+        Assert.assertEquals(names.get(0), "Byron");
+
+        // Same instance is reused, so the fixtures are only loaded once
+        Assert.assertSame(MYSQLConnectionManager.getInstance(), database, "Embedded database was recreated");
+    }
+
+    @Test
+    public void testNamedQueryResolvesFromQueriesProperties() {
+        List<String> total = database.getListData("UserCount", "total");
+        Assert.assertEquals(total.get(0), "6", "Named query did not run against the embedded database");
+    }
+
+    @Test
+    public void testFixtureLoaderBatchesRows() throws Exception {
+        // Reloads the users fixture into an emptied table, then puts the seeded rows back
+        try (Connection con = database.getConnection(); Statement stmt = con.createStatement()) {
+            stmt.execute("CREATE TABLE users_backup AS SELECT * FROM users");
+            stmt.execute("DELETE FROM users");
+        }
+        try {
+            // A batch size smaller than the fixture exercises both full and partial batches
+            MYSQLFixtureLoader loader = new MYSQLFixtureLoader(database, 4, 2);
+            Map<String, MYSQLFixtureLoader.LoadResult> results = loader.load("users.csv");
+
+            Assert.assertEquals(results.get("users").getRows(), 6, "Unexpected number of loaded rows");
+            Assert.assertEquals(
+                database.getListData("SELECT email FROM users WHERE id = 12", "email").get(0),
+                "rachel.howell@reqres.in");
+        } finally {
+            try (Connection con = database.getConnection(); Statement stmt = con.createStatement()) {
+                stmt.execute("DELETE FROM users");
+                stmt.execute("INSERT INTO users SELECT * FROM users_backup");
+                stmt.execute("DROP TABLE users_backup");
+            }
+        }
+    }
+
+    @Test
+    public void testWaitForQueryConvergesOnLateWrite() throws Exception {
+        try (Connection con = database.getConnection(); Statement stmt = con.createStatement()) {
+            stmt.execute("CREATE TABLE late_writes (id INT PRIMARY KEY, name VARCHAR(20))");
+        }
+        // The row is written once the waiter has seen it missing, not after a fixed delay
+        CountDownLatch firstPoll = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            try {
+                firstPoll.await();
+                try (Connection con = database.getConnection(); Statement stmt = con.createStatement()) {
+                    stmt.execute("INSERT INTO late_writes (id, name) VALUES (1, 'Late')");
+                }
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        writer.start();
+        try {
+            MYSQLConnectionManager.WaitResult result = database.waitForQuery(
+                "SELECT name FROM late_writes WHERE id = 1", rows -> {
+                    firstPoll.countDown();
+                    return !rows.isEmpty();
+                }, Duration.ofSeconds(10));
+
+            Assert.assertEquals(result.getRows().get(0).get("NAME"), "Late");
+            Assert.assertTrue(result.getAttempts() > 1, "Waiter should have polled more than once");
+        } finally {
+            writer.join();
+            try (Connection con = database.getConnection(); Statement stmt = con.createStatement()) {
+                stmt.execute("DROP TABLE late_writes");
+            }
+        }
+    }
+
+    @Test
+    public void testFailedSeedIsRetriedOnAnEmptyDatabase() throws Exception {
+        String url = "jdbc:h2:mem:seed_retry;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1";
+        // A row left in the users table makes the first seed fail on a duplicate key
+        try (Connection con = DriverManager.getConnection(url, "sa", ""); Statement stmt = con.createStatement()) {
+            stmt.execute("CREATE TABLE users (id INT PRIMARY KEY, email VARCHAR(255) NOT NULL, "
+                + "first_name VARCHAR(100), last_name VARCHAR(100))");
+            stmt.execute("INSERT INTO users (id, email) VALUES (10, 'leftover@reqres.in')");
+        }
+        System.setProperty("_EMBEDDED_DB_URL", url);
+        try {
+            try {
+                MYSQLConnectionManager.getInstance();
+                Assert.fail("Seeding over the leftover row should fail");
+            } catch (RuntimeException expected) {
+                // the failed seed is discarded
+            }
+            MYSQLConnectionManager retried = MYSQLConnectionManager.getInstance();
+
+            Assert.assertNotSame(retried, database, "The seed ran against the default embedded database");
+            Assert.assertEquals(retried.getListData("UserCount", "total").get(0), "6", "The retried seed did not load the fixtures");
+            Assert.assertSame(MYSQLConnectionManager.getInstance(), retried, "The retried database was not kept");
+        } finally {
+            System.clearProperty("_EMBEDDED_DB_URL");
+        }
+    }
+
+    @Test(expectedExceptions = RuntimeException.class)
+    public void testWaitForQueryTimesOut() {
+        database.waitForQuery("SELECT id FROM users WHERE id = -1", rows -> !rows.isEmpty(), Duration.ofMillis(200));
+    }
+}
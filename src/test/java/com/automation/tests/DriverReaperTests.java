@@ -0,0 +1,76 @@
+package com.automation.tests;
+
+import com.automation.manager.DriverReaper;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.service.DriverService;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DriverReaperTests {
+
+    @Test
+    public void testQuitRunsInBackgroundAndShutdownWaitsForIt() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger quits = new AtomicInteger();
+        WebDriver driver = (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {WebDriver.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("quit")) {
+                        release.await(10, TimeUnit.SECONDS);
+                        quits.incrementAndGet();
+                    }
+                    return null;
+                });
+
+        DriverReaper reaper = DriverReaper.getInstance();
+        long start = System.nanoTime();
+        reaper.reap(driver, null);
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000, "reap() should not wait for quit()");
+        Assert.assertEquals(quits.get(), 0);
+
+        release.countDown();
+        DriverReaper.shutdown();
+        Assert.assertEquals(quits.get(), 1, "shutdown() should wait for pending quits");
+    }
+
+    @Test
+    public void testBrowserHandedOverAfterShutdownIsQuitByTheCaller() throws IOException {
+        AtomicInteger quits = new AtomicInteger();
+        WebDriver driver = (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {WebDriver.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("quit")) {
+                        quits.incrementAndGet();
+                    }
+                    return null;
+                });
+        AtomicBoolean running = new AtomicBoolean(true);
+        DriverService service = new DriverService(new File("chromedriver"), 0, Duration.ofSeconds(1),
+                Collections.emptyList(), Collections.emptyMap()) {
+            @Override
+            public boolean isRunning() {
+                return running.get();
+            }
+
+            @Override
+            public void stop() {
+                running.set(false);
+            }
+        };
+
+        // A scenario closing its driver while the suite shuts the reaper down
+        DriverReaper reaper = DriverReaper.getInstance();
+        DriverReaper.shutdown();
+        reaper.reap(driver, service);
+
+        Assert.assertEquals(quits.get(), 1, "The browser was not quit");
+        Assert.assertFalse(running.get(), "The driver service was not stopped");
+    }
+}
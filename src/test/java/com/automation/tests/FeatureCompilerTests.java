@@ -0,0 +1,101 @@
+package com.automation.tests;
+
+import com.automation.run.FeatureCompiler;
+import com.automation.run.StepIndex;
+import io.cucumber.testng.CucumberOptions;
+import io.cucumber.testng.TestNGCucumberRunner;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class FeatureCompilerTests {
+
+    private static final String FEATURE = "src/test/resources/features/API.feature";
+
+    @CucumberOptions(features = FEATURE, glue = "com.automation.stepdef")
+    static class ApiFeature {
+    }
+
+    @Test
+    public void testLiteralEscapesEverythingButPrintableAscii() {
+        Assert.assertEquals(FeatureCompiler.literal("plain"), "\"plain\"");
+        Assert.assertEquals(FeatureCompiler.literal("say \"hi\"\n"), "\"say \\\"hi\\\"\\n\"");
+        Assert.assertEquals(FeatureCompiler.literal("C:\\tmp\t1\r"), "\"C:\\\\tmp\\t1\\r\"");
+        Assert.assertEquals(FeatureCompiler.literal("caf\u00e9 \u0001"), "\"caf\\u00e9 \\u0001\"");
+        Assert.assertEquals(FeatureCompiler.literal(""), "\"\"");
+    }
+
+    @Test
+    public void testIdentifierCamelCasesNames() {
+        Assert.assertEquals(FeatureCompiler.identifier("Verify the Employee Name", false), "verifyTheEmployeeName");
+        Assert.assertEquals(FeatureCompiler.identifier("  Verify if the id is generated", false), "verifyIfTheIdIsGenerated");
+        Assert.assertEquals(FeatureCompiler.identifier("login-page", true), "LoginPage");
+        Assert.assertEquals(FeatureCompiler.identifier("API", true), "API");
+        Assert.assertEquals(FeatureCompiler.identifier("3 users", false), "_3Users", "Identifiers cannot start with a digit");
+        Assert.assertEquals(FeatureCompiler.identifier("!!!", false), "");
+    }
+
+    @Test
+    public void testGenerateWritesOneMethodPerScenario() throws IOException {
+        StepIndex index = StepIndex.index(new File(FeatureCompiler.SOURCES), FeatureCompiler.GLUE);
+        Assert.assertNotNull(index, "The step index does not match the compiled glue; run mvn test-compile");
+        File packageDir = Files.createTempDirectory("codegen").toFile();
+
+        File generated = new FeatureCompiler(index, "not @ignore").generate(FEATURE, packageDir);
+
+        Assert.assertEquals(generated.getName(), "APIFeature.java");
+        String java = new String(Files.readAllBytes(generated.toPath()), StandardCharsets.UTF_8);
+        Assert.assertTrue(java.contains("public class APIFeature extends CompiledFeature"));
+        Assert.assertEquals(count(java, "@Test\\("), scenarios(), "Not one test method per scenario");
+        Assert.assertTrue(java.contains("    @Line(5)\n    public void verifyGetAPIs() {\n"
+                + "        run(\"Scenario\", \"Verify Get APIs\", 5, new String[] {\"@API\", \"@cacheable\"}, s -> {\n"), java);
+        Assert.assertTrue(java.contains("s.before(com.automation.stepdef.ScenarioHooks.class, \"skipCachedScenario\");"),
+                "Hooks are not run by name through the Java backend");
+    }
+
+    @Test
+    public void testMainCompilesTheFeatureAndWritesAParallelSuite() throws IOException {
+        File sources = Files.createTempDirectory("codegen").toFile();
+        File classes = Files.createTempDirectory("codegen-classes").toFile();
+
+        FeatureCompiler.main(new String[] {sources.getPath(), classes.getPath(), FEATURE});
+
+        Assert.assertTrue(new File(classes, "com/automation/generated/APIFeature.class").exists(), "The generated class was not compiled");
+        String suite = new String(Files.readAllBytes(new File(sources, FeatureCompiler.SUITE).toPath()), StandardCharsets.UTF_8);
+        Assert.assertTrue(suite.contains("parallel=\"methods\" thread-count=\"4\""), suite);
+        Assert.assertTrue(suite.contains("<listener class-name=\"com.automation.run.CompiledFeature$Planner\"/>"), suite);
+        Assert.assertTrue(suite.contains("<class name=\"com.automation.generated.APIFeature\"/>"), suite);
+    }
+
+    @Test
+    public void testCompiledScenariosAreLeftOutOfTheCucumberRunners() {
+        Object[][] scenarios = new TestNGCucumberRunner(ApiFeature.class).provideScenarios();
+        Assert.assertSame(FeatureCompiler.withoutCompiled(scenarios), scenarios, "Scenarios dropped without -Pcodegen");
+
+        System.setProperty("codegen.enabled", "true");
+        try {
+            Assert.assertEquals(FeatureCompiler.withoutCompiled(scenarios).length, 0, "Compiled scenarios would run twice");
+        } finally {
+            System.clearProperty("codegen.enabled");
+        }
+    }
+
+    private static int scenarios() throws IOException {
+        String feature = new String(Files.readAllBytes(new File(FEATURE).toPath()), StandardCharsets.UTF_8);
+        return count(feature, "(?m)^\\s*Scenario:");
+    }
+
+    private static int count(String text, String regex) {
+        Matcher matcher = Pattern.compile(regex).matcher(text);
+        int count = 0;
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+}
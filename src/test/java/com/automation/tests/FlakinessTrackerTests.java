@@ -0,0 +1,109 @@
+package com.automation.tests;
+
+import com.automation.run.FlakinessTracker;
+import com.automation.run.ScenarioHistory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.cucumber.testng.CucumberOptions;
+import io.cucumber.testng.PickleWrapper;
+import io.cucumber.testng.TestNGCucumberRunner;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+public class FlakinessTrackerTests {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @CucumberOptions(features = "src/test/resources/features/API.feature", glue = "com.automation.stepdef")
+    static class ApiFeature {
+    }
+
+    @Test
+    public void testStableScenariosScoreZero() {
+        Assert.assertEquals(FlakinessTracker.scoreOf("PPPPPP"), 0.0);
+        Assert.assertEquals(FlakinessTracker.scoreOf("FFFFFF"), 0.0, "A scenario that always fails is broken, not flaky");
+        Assert.assertEquals(FlakinessTracker.scoreOf(null), 0.0);
+    }
+
+    @Test
+    public void testRetriesAndFlipsRaiseTheScore() {
+        Assert.assertEquals(FlakinessTracker.scoreOf("PRPRPP"), 2 / 6.0, 1e-9);
+        Assert.assertEquals(FlakinessTracker.scoreOf("PFPFPP"), 4 / 6.0, 1e-9, "Each change between pass and fail counts");
+        Assert.assertEquals(FlakinessTracker.scoreOf("RFP"), 3 / 3.0, 1e-9);
+    }
+
+    @Test
+    public void testQuarantineNeedsEnoughRuns() throws IOException {
+        Map<String, String> history = new HashMap<>();
+        history.put("few.feature:3", "PFPF");
+        history.put("flaky.feature:3", "PFPFP");
+        history.put("stable.feature:3", "PPPPP");
+        File file = historyFile(history);
+
+        FlakinessTracker tracker = new FlakinessTracker(file, 20, 5, 0.3, true);
+        Assert.assertFalse(tracker.isQuarantined("few.feature:3"), "Quarantined before flaky.minRuns runs");
+        Assert.assertTrue(tracker.isQuarantined("flaky.feature:3"));
+        Assert.assertFalse(tracker.isQuarantined("stable.feature:3"));
+        Assert.assertFalse(tracker.isQuarantined("unknown.feature:3"));
+
+        FlakinessTracker disabled = new FlakinessTracker(file, 20, 5, 0.3, false);
+        Assert.assertFalse(disabled.isQuarantined("flaky.feature:3"), "flaky.quarantine=false still quarantined");
+    }
+
+    @Test
+    public void testFilterSplitsScenariosBetweenLanes() throws IOException {
+        Object[][] scenarios = new TestNGCucumberRunner(ApiFeature.class).provideScenarios();
+        Assert.assertTrue(scenarios.length > 2, "API.feature has too few scenarios");
+        String flaky = key(scenarios[1]);
+        Map<String, String> history = new HashMap<>();
+        history.put(flaky, "PFPFPF");
+        FlakinessTracker tracker = new FlakinessTracker(historyFile(history), 20, 5, 0.3, true);
+
+        Object[][] main = tracker.filter(scenarios, false);
+        Object[][] quarantine = tracker.filter(scenarios, true);
+
+        Assert.assertEquals(main.length, scenarios.length - 1);
+        Assert.assertEquals(key(main[0]), key(scenarios[0]));
+        Assert.assertEquals(key(main[1]), key(scenarios[2]), "Main lane rows are not in their original order");
+        Assert.assertEquals(quarantine.length, 1);
+        Assert.assertEquals(key(quarantine[0]), flaky);
+    }
+
+    @Test
+    public void testSaveMergesRunnersAndKeepsTheWindow() throws IOException {
+        Map<String, String> history = new HashMap<>();
+        history.put("a.feature:3", "PPP");
+        File file = historyFile(history);
+        // Two runners of the same run, each with its own tracker, saving into one file
+        FlakinessTracker first = new FlakinessTracker(file, 4, 5, 0.3, true);
+        FlakinessTracker second = new FlakinessTracker(file, 4, 5, 0.3, true);
+
+        first.record("a.feature:3", FlakinessTracker.FAILED);
+        first.record("a.feature:3", FlakinessTracker.RETRIED);
+        second.record("b.feature:3", FlakinessTracker.PASSED);
+        first.save();
+        second.save();
+
+        Map<String, String> saved = mapper.readValue(file, new TypeReference<Map<String, String>>() {
+        });
+        Assert.assertEquals(saved.get("a.feature:3"), "PPFR", "Only the last flaky.window outcomes are kept");
+        Assert.assertEquals(saved.get("b.feature:3"), "P", "The second save lost the other runner's outcomes");
+        Assert.assertEquals(first.score("a.feature:3"), 0.0, "Scores changed during the run");
+    }
+
+    private static File historyFile(Map<String, String> history) throws IOException {
+        File file = new File(Files.createTempDirectory("flakiness").toFile(), "flakiness.json");
+        file.deleteOnExit();
+        mapper.writeValue(file, history);
+        return file;
+    }
+
+    private static String key(Object[] row) {
+        return ScenarioHistory.key(((PickleWrapper) row[0]).getPickle());
+    }
+}
@@ -0,0 +1,63 @@
+package com.automation.tests;
+
+import com.automation.run.PrefixReplay;
+import io.cucumber.testng.CucumberOptions;
+import io.cucumber.testng.PickleWrapper;
+import io.cucumber.testng.TestNGCucumberRunner;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class PrefixReplayTests {
+
+    @CucumberOptions(features = "src/test/resources/features/Login.feature", glue = "com.automation.stepdef")
+    static class LoginFeature {
+    }
+
+    @Test
+    public void testScenariosAreGroupedByTheirSharedLeadingSteps() {
+        List<String> features = Arrays.asList("login.feature", "login.feature", "login.feature", "login.feature");
+        List<List<String>> steps = Arrays.asList(
+                Arrays.asList("I am on the login page", "the form is displayed", "I enter username \"a\"", "I log in"),
+                Arrays.asList("I am on the login page", "the form is displayed", "I enter username \"b\"", "I log in"),
+                Arrays.asList("I am on the login page", "the form is displayed", "I enter password \"c\""),
+                Arrays.asList("the page loads quickly", "all elements are interactive"));
+
+        int[] prefixes = PrefixReplay.plan(features, steps, 1);
+
+        Assert.assertEquals(prefixes, new int[] {2, 2, 2, 0});
+    }
+
+    @Test
+    public void testEveryScenarioKeepsAStepOfItsOwnAndFeaturesAreNotMixed() {
+        List<String> features = Arrays.asList("a.feature", "a.feature", "b.feature");
+        List<List<String>> steps = Arrays.asList(
+                Arrays.asList("I open the site", "I log in"),
+                Arrays.asList("I open the site", "I log in", "I see the inventory"),
+                Arrays.asList("I open the site", "I log in", "I see the cart"));
+
+        int[] prefixes = PrefixReplay.plan(features, steps, 1);
+
+        Assert.assertEquals(prefixes, new int[] {1, 1, 0}, "The shorter scenario must still run its last step");
+    }
+
+    @Test
+    public void testRunnerScenariosRunInFullUntilASnapshotExists() {
+        // Unwraps the TestNG pickles by reflection, which pins the cucumber-testng version
+        Object[][] scenarios = new TestNGCucumberRunner(LoginFeature.class).provideScenarios();
+        PrefixReplay replay = new PrefixReplay("Web");
+        Assert.assertSame(replay.plan(scenarios), scenarios, "Off by default");
+
+        System.setProperty("prefix.replay", "true");
+        try {
+            replay.plan(scenarios);
+        } finally {
+            System.clearProperty("prefix.replay");
+        }
+        List<PickleWrapper> ran = new ArrayList<>();
+        replay.run((PickleWrapper) scenarios[0][0], ran::add);
+        Assert.assertEquals(ran, Arrays.asList(scenarios[0][0]), "Without a snapshot the scenario must run unchanged");
+    }
+}
@@ -0,0 +1,72 @@
+package com.automation.tests;
+
+import com.automation.run.ScopedObjectFactory;
+import com.automation.utils.Scoped;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+public class ScopedObjectFactoryTests {
+
+    @Scoped(Scoped.Lifetime.SUITE)
+    public static class Catalog {
+    }
+
+    public static class Basket {
+        private final Catalog catalog;
+
+        public Basket() {
+            this(null);
+        }
+
+        public Basket(Catalog catalog) {
+            this.catalog = catalog;
+        }
+    }
+
+    @Scoped(Scoped.Lifetime.SUITE)
+    public static class Checkout {
+        public Checkout(Basket basket) {
+        }
+    }
+
+    @Test
+    public void testSuiteObjectsAreSharedAndScenarioObjectsAreNot() {
+        ScopedObjectFactory first = new ScopedObjectFactory();
+        ScopedObjectFactory second = new ScopedObjectFactory();
+
+        first.start();
+        Basket basket = first.getInstance(Basket.class);
+        Assert.assertSame(first.getInstance(Basket.class), basket, "Same scenario should get the same instance");
+        Assert.assertNotNull(basket.catalog, "Greediest constructor should be used");
+        first.stop();
+
+        first.start();
+        Assert.assertNotSame(first.getInstance(Basket.class), basket, "Next scenario should get a new instance");
+        first.stop();
+
+        second.start();
+        Assert.assertSame(second.getInstance(Catalog.class), basket.catalog, "Suite objects should be shared by all factories");
+        second.stop();
+    }
+
+    @Test
+    public void testLongerLivedObjectCannotDependOnScenarioObject() {
+        ScopedObjectFactory factory = new ScopedObjectFactory();
+        factory.start();
+        try {
+            factory.getInstance(Checkout.class);
+            Assert.fail("A suite object must not capture a scenario object");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getMessage().contains("lives shorter"), e.getMessage());
+        } finally {
+            factory.stop();
+        }
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void resetStatistics() {
+        // Keeps these factories out of the construction summary a runner publishes later
+        ScopedObjectFactory.reset();
+    }
+}
@@ -0,0 +1,46 @@
+package com.automation.tests;
+
+import com.automation.run.ShardPlanner;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ShardPlannerTests {
+
+    @Test
+    public void testShardsAreBalancedByDuration() {
+        Map<String, Long> durations = new HashMap<>();
+        durations.put("a.feature:3", 60L);
+        durations.put("a.feature:9", 30L);
+        durations.put("b.feature:3", 30L);
+        durations.put("b.feature:8", 20L);
+        durations.put("c.feature:4", 10L);
+        durations.put("c.feature:7", 10L);
+        List<String> keys = Arrays.asList("a.feature:3", "a.feature:9", "b.feature:3", "b.feature:8", "c.feature:4", "c.feature:7");
+
+        int[] assignment = ShardPlanner.assign(keys, durations::get, 2);
+
+        long[] load = new long[2];
+        for (int i = 0; i < keys.size(); i++) {
+            load[assignment[i]] += durations.get(keys.get(i));
+        }
+        Assert.assertEquals(load[0], 80L, "Longest scenario should be balanced by the short ones");
+        Assert.assertEquals(load[1], 80L);
+    }
+
+    @Test
+    public void testAssignmentDoesNotDependOnDiscoveryOrder() {
+        List<String> keys = Arrays.asList("x:1", "x:5", "y:2", "y:9", "z:4");
+        List<String> reversed = Arrays.asList("z:4", "y:9", "y:2", "x:5", "x:1");
+
+        int[] forward = ShardPlanner.assign(keys, key -> 0L, 3);
+        int[] backward = ShardPlanner.assign(reversed, key -> 0L, 3);
+
+        for (int i = 0; i < keys.size(); i++) {
+            Assert.assertEquals(backward[reversed.indexOf(keys.get(i))], forward[i], "Shard changed for " + keys.get(i));
+        }
+    }
+}
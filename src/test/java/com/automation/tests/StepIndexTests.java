@@ -0,0 +1,32 @@
+package com.automation.tests;
+
+import com.automation.run.StepIndex;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import java.util.Arrays;
+import java.util.List;
+
+public class StepIndexTests {
+
+    @Test
+    public void testLiteralPrefixStopsAtTheFirstVariablePart() {
+        Assert.assertEquals(StepIndex.literalPrefix("the Status code Should Be {int}"), "the Status code Should Be ");
+        Assert.assertEquals(StepIndex.literalPrefix("I have {int} cucumber(s)"), "I have ");
+        Assert.assertEquals(StepIndex.literalPrefix("I click the login/submit button"), "I click the ");
+        Assert.assertEquals(StepIndex.literalPrefix("^I tap on Accessibility$"), "I tap on Accessibility");
+        Assert.assertEquals(StepIndex.literalPrefix("^I have users? listed$"), "I have user");
+    }
+
+    @Test
+    public void testStepsMatchOnlyTheirDefinition() {
+        List<StepIndex.Step> steps = Arrays.asList(
+                new StepIndex.Step("Then", "the Status code Should Be {int}", "Steps", "status"),
+                new StepIndex.Step("When", "get the Status code", "Steps", "getStatus"),
+                new StepIndex.Step("When", "get the response", "Steps", "getResponse"));
+        StepIndex index = new StepIndex(steps);
+
+        Assert.assertEquals(index.candidates("get the response").size(), 1, "Only the shared prefix should be tried");
+        Assert.assertEquals(index.match("the Status code Should Be 201"), steps.subList(0, 1));
+        Assert.assertTrue(index.match("get the headers").isEmpty());
+    }
+}
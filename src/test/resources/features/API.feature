@@ -1,11 +1,13 @@
 @API
 Feature: APIs
 
+  @cacheable
   Scenario: Verify Get APIs
     Given Get the List of Users
     When get the Status code 
     Then the Status code Should Be 200
     
+ @cacheable
  Scenario: Verify the Employee Name
     Given Get the List of Users
     When get the response
@@ -28,3 +30,13 @@ Scenario:  Verify the response json scheme
     Given creat new user
     When get the response
     Then Verify the response json scheme
+    
+    
+Scenario:  Verify creating several users at once
+    Given create the following users
+      | name     | job      |
+      | Bryant   | BA       |
+      | Morpheus | leader   |
+      | Trinity  | operator |
+      | Neo      | the one  |
+    Then every user is created with status 201
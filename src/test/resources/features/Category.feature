@@ -2,7 +2,7 @@
 Feature: Category
 
   Scenario: Verify able to browse categories on page:
-    Given I login successfully to "https://www.saucedemo.com/" with email "example@autotest.com" & password "123456"
+    Given I am logged in as "standard"
     When I browse following categories as below:
       | Categories | Sub Categories  |
       | Women      | T-shirts      |
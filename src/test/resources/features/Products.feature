@@ -0,0 +1,16 @@
+@Web
+Feature: Products
+  As a logged-in user
+  I want to see the products
+  So that I can shop without logging in again
+
+  Background: 
+    Given I am logged in as "standard"
+
+  @Smoke
+  Scenario: Products are listed for a logged-in user
+    Then the products page is displayed
+
+  Scenario: Session is kept when the page is reloaded
+    When I reload the page
+    Then the products page is displayed
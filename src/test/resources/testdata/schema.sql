@@ -0,0 +1,8 @@
+-- Schema for the embedded (_DB_MODE=embedded) database.
+-- Keep it MySQL compatible: the same statements must run on the shared MySQL server.
+CREATE TABLE IF NOT EXISTS users (
+    id INT PRIMARY KEY,
+    email VARCHAR(255) NOT NULL,
+    first_name VARCHAR(100),
+    last_name VARCHAR(100)
+);